@@ -0,0 +1,31 @@
+#version 330 core
+
+layout (location = 0) in vec2 corner;
+layout (location = 1) in uint state;
+
+//Top left corner of the grid in window coordinates
+uniform vec2 origin;
+//Cell size in window coordinates
+uniform vec2 cellSize;
+//Number of cells in every column of the grid
+uniform int gridHeight;
+//Vertical shift of the odd columns in cells (half a cell on hex boards)
+uniform float columnShift;
+
+out vec2 textureCoordinates;
+
+void main()
+{
+	//The instance ID is the linear index i * height + j
+	int i = gl_InstanceID / gridHeight;
+	int j = gl_InstanceID - i * gridHeight;
+
+	//The state is the tile index inside the 8x8 texture atlas
+	vec2 tile = vec2(state % 8u, state / 8u);
+
+	//Make the texture coordinates go forward in the pipeline
+	textureCoordinates = (tile + corner) * 0.125;
+
+	//Assign the position in the window
+	gl_Position = vec4(origin + vec2(i + corner.x, -(j + corner.y + float(i & 1) * columnShift)) * cellSize, 0, 1);
+}
@@ -0,0 +1,32 @@
+#version 330 core
+
+in vec2 boardCoordinates;
+
+//Texture atlas with 8x8 tiles
+uniform sampler2D textureFile;
+//One texel per cell: the texel (j, i) contains the state of the cell (i, j)
+uniform sampler2D stateTexture;
+//Board size in cells (width, height)
+uniform ivec2 gridSize;
+//Vertical shift of the odd columns in cells (half a cell on hex boards)
+uniform float columnShift;
+
+out vec4 fragColor;
+
+void main()
+{
+	//Position inside the board in cells
+	vec2 cell = boardCoordinates * vec2(gridSize.x, gridSize.y + columnShift);
+	cell.y -= float(int(cell.x) & 1) * columnShift;
+
+	//The shifted columns leave an empty strip at the top or at the bottom
+	if(cell.y < 0.0 || cell.y >= float(gridSize.y)) { discard; }
+
+	ivec2 ij = min(ivec2(cell), gridSize - 1);
+
+	//The state is the tile index inside the atlas
+	int state = int(texelFetch(stateTexture, ivec2(ij.y, ij.x), 0).r * 255.0 + 0.5);
+	vec2 tile = vec2(state % 8, state / 8);
+
+	fragColor = texture(textureFile, (tile + fract(cell)) * 0.125);
+}
@@ -0,0 +1,19 @@
+#version 330 core
+
+layout (location = 0) in vec2 corner;
+
+//Top left corner of the board in window coordinates
+uniform vec2 origin;
+//Board size in window coordinates
+uniform vec2 boardSize;
+
+out vec2 boardCoordinates;
+
+void main()
+{
+	//Make the board coordinates go forward in the pipeline
+	boardCoordinates = corner;
+
+	//Assign the position in the window
+	gl_Position = vec4(origin + vec2(corner.x, -corner.y) * boardSize, 0, 1);
+}
@@ -0,0 +1,175 @@
+package game.minesweeper.benchmark;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.objects.CellState;
+import game.minesweeper.game.solver.Deductions;
+import game.minesweeper.game.solver.LinearSolver;
+import game.minesweeper.game.solver.ProbabilityEngine;
+import game.minesweeper.game.solver.RuleSolver;
+import game.minesweeper.game.solver.SolverPlayer;
+
+/**
+ * Benchmark of the frontier solvers on dense boards. Every game is played with the rule solver
+ * until it is stuck, then the linear solver and a fresh rule solver are timed on the same
+ * position. The linear deductions are checked against the real states and applied, when
+ * there are none the safest cell is revealed.
+ * Usage: FrontierSolverBenchmark [games]
+ * @author Matteo Pignataro
+ */
+public class FrontierSolverBenchmark
+{
+	/**
+	 * Board configurations (width, height, mines)
+	 */
+	private static final int CONFIGURATIONS[][] = {{30, 16, 99}, {30, 16, 130}, {100, 100, 2200}};
+	
+	/**
+	 * Time budget of a probabilities computation (nanoseconds)
+	 */
+	private static final long PROBABILITY_BUDGET = 20_000_000;
+	
+	public static void main(String[] args)
+	{
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		
+		//Warm up run, not printed
+		for(int configuration[] : CONFIGURATIONS)
+		{
+			run(configuration, Math.max(games / 10, 1), false);
+		}
+		
+		System.out.println(String.format("%-16s %10s %10s %12s %12s %14s %14s", "board", "positions", "found", "deductions", "frontier", "linear us", "rules us"));
+		
+		for(int configuration[] : CONFIGURATIONS)
+		{
+			run(configuration, games, true);
+		}
+	}
+	
+	/**
+	 * Method that plays the games of a configuration
+	 * @param configuration The board width, height and mines
+	 * @param games The number of games
+	 * @param print If the results are printed
+	 */
+	private static void run(int configuration[], int games, boolean print)
+	{
+		int width 	= configuration[0];
+		int height 	= configuration[1];
+		
+		BoardEngine engine 		= new BoardEngine(width, height, BoardGenerator.withBombs(configuration[2], 42));
+		SolverPlayer player 	= new SolverPlayer(engine, new RuleSolver(engine), new ProbabilityEngine(engine, PROBABILITY_BUDGET));
+		LinearSolver linear 	= new LinearSolver(engine);
+		Deductions deductions 	= new Deductions();
+		
+		long positions 	= 0;
+		long found 		= 0;
+		long deduced 	= 0;
+		long frontier 	= 0;
+		long linearTime = 0;
+		long rulesTime 	= 0;
+		
+		for(int game = 0; game < games; game++)
+		{
+			engine.reset();
+			
+			while(engine.isPlaying())
+			{
+				//Everything the incremental rules find
+				player.play(Long.MAX_VALUE >>> 2);
+				if(!engine.isPlaying()) { break; }
+				
+				//Both solvers on the stuck position
+				long start = System.nanoTime();
+				linear.solve(deductions);
+				linearTime += System.nanoTime() - start;
+				
+				start = System.nanoTime();
+				RuleSolver rules = new RuleSolver(engine);
+				rules.solve(new Deductions());
+				rulesTime += System.nanoTime() - start;
+				engine.removeChangeListener(rules);
+				
+				positions++;
+				frontier += frontier(engine.getStore());
+				
+				if(deductions.isEmpty())
+				{
+					player.guess();
+					continue;
+				}
+				
+				found++;
+				deduced += deductions.getSafeCount() + deductions.getMineCount();
+				
+				verify(engine.getStore(), deductions);
+				
+				for(int k = 0; k < deductions.getSafeCount(); k++) { engine.reveal(deductions.getSafe(k)); }
+				for(int k = 0; k < deductions.getMineCount(); k++) { engine.flag(deductions.getMine(k)); }
+			}
+		}
+		
+		if(!print) { return; }
+		
+		System.out.println(String.format("%-16s %10d %10d %12.2f %12.1f %14.2f %14.2f",
+				width + "x" + height + "/" + configuration[2], positions, found,
+				found == 0 ? 0 : (double) deduced / found, positions == 0 ? 0 : (double) frontier / positions,
+				positions == 0 ? 0 : linearTime / 1e3 / positions, positions == 0 ? 0 : rulesTime / 1e3 / positions));
+	}
+	
+	/**
+	 * Method that checks the deductions against the real states
+	 */
+	private static void verify(BoardStore store, Deductions deductions)
+	{
+		for(int k = 0; k < deductions.getSafeCount(); k++)
+		{
+			if(store.getRealState(deductions.getSafe(k)) == CellState.BOMB)
+			{
+				throw new RuntimeException("Wrong safe cell " + deductions.getSafe(k) + " [FrontierSolverBenchmark]");
+			}
+		}
+		
+		for(int k = 0; k < deductions.getMineCount(); k++)
+		{
+			if(store.getRealState(deductions.getMine(k)) != CellState.BOMB)
+			{
+				throw new RuntimeException("Wrong mine " + deductions.getMine(k) + " [FrontierSolverBenchmark]");
+			}
+		}
+	}
+	
+	/**
+	 * @return The number of hidden cells next to a revealed number
+	 */
+	private static int frontier(BoardStore store)
+	{
+		int height = store.getHeight();
+		int count = 0;
+		
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			int state = store.getStateOrdinal(index);
+			if(state != CellState.CELL_HIDDEN.ordinal() && state != CellState.FLAG.ordinal()) { continue; }
+			
+			int i = index / height;
+			int j = index - i * height;
+			boolean near = false;
+			
+			for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, store.getWidth() - 1) && !near; ni++)
+			{
+				for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1) && !near; nj++)
+				{
+					int neighbour = store.getStateOrdinal(ni * height + nj);
+					near = neighbour >= CellState.CELL_1.ordinal() && neighbour <= CellState.CELL_8.ordinal();
+				}
+			}
+			
+			if(near) { count++; }
+		}
+		
+		return count;
+	}
+}
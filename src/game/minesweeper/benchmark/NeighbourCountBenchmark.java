@@ -0,0 +1,179 @@
+package game.minesweeper.benchmark;
+
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.NeighbourCounter;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Benchmark of the neighbour count kernels at several board sizes: the original branchy
+ * loop with eight bounds checked neighbours, the scalar banded kernel and the SWAR one.
+ * Every kernel result is compared with the branchy loop before measuring.
+ * Usage: NeighbourCountBenchmark [repetitions]
+ * @author Matteo Pignataro
+ */
+public class NeighbourCountBenchmark
+{
+	/**
+	 * Board sizes (width, height)
+	 */
+	private static final int SIZES[][] = {{30, 16}, {100, 100}, {1000, 1000}, {4000, 2500}, {10000, 10000}};
+	
+	/**
+	 * Bombs density
+	 */
+	private static final double DENSITY = 0.2;
+	
+	public static void main(String[] args)
+	{
+		int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		
+		System.out.println(String.format("%-14s %14s %14s %14s", "size", "branchy ns/c", "scalar ns/c", "swar ns/c"));
+		
+		for(int size[] : SIZES)
+		{
+			BoardStore store = new BoardStore(size[0], size[1]);
+			BoardGenerator.withDensity(DENSITY, 42).generate(store);
+			byte bombs[] = snapshot(store);
+			
+			//Check the kernels against the original loop
+			countBranchy(store);
+			byte expected[] = snapshot(store);
+			verify(store, bombs, expected, false);
+			verify(store, bombs, expected, true);
+			
+			//Small boards are repeated more to get a measurable time
+			int loops = Math.max(1, 20_000_000 / store.getSize());
+			
+			double branchy 	= measure(store, bombs, repetitions, loops, 0);
+			double scalar 	= measure(store, bombs, repetitions, loops, 1);
+			double swar 	= measure(store, bombs, repetitions, loops, 2);
+			
+			System.out.println(String.format("%-14s %14.3f %14.3f %14.3f", size[0] + "x" + size[1], branchy, scalar, swar));
+		}
+	}
+	
+	/**
+	 * Method that measures the best time of a kernel
+	 * @param store The board store
+	 * @param bombs The real states with only the bombs placed
+	 * @param repetitions The number of measures
+	 * @param loops The number of counts inside a single measure
+	 * @param kernel 0 branchy, 1 scalar, 2 swar
+	 * @return The best time in nanoseconds per cell
+	 */
+	private static double measure(BoardStore store, byte bombs[], int repetitions, int loops, int kernel)
+	{
+		double best = Double.MAX_VALUE;
+		
+		for(int r = 0; r < repetitions; r++)
+		{
+			long elapsed = 0;
+			
+			for(int l = 0; l < loops; l++)
+			{
+				restore(store, bombs);
+				
+				long start = System.nanoTime();
+				
+				if(kernel == 0) { countBranchy(store); }
+				else 			{ NeighbourCounter.count(store, kernel == 2); }
+				
+				elapsed += System.nanoTime() - start;
+			}
+			
+			best = Math.min(best, (double) elapsed / loops / store.getSize());
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Method that checks a kernel against the expected real states
+	 */
+	private static void verify(BoardStore store, byte bombs[], byte expected[], boolean swar)
+	{
+		restore(store, bombs);
+		NeighbourCounter.count(store, swar);
+		
+		byte result[] = snapshot(store);
+		
+		for(int index = 0; index < result.length; index++)
+		{
+			if(result[index] != expected[index])
+			{
+				throw new RuntimeException("Kernel mismatch at cell " + index + " [NeighbourCountBenchmark]");
+			}
+		}
+	}
+	
+	/**
+	 * @return The real state ordinals of all the cells
+	 */
+	private static byte[] snapshot(BoardStore store)
+	{
+		byte result[] = new byte[store.getSize()];
+		
+		for(int index = 0; index < result.length; index++)
+		{
+			result[index] = (byte) store.getRealStateOrdinal(index);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Method that brings back the real states of a snapshot
+	 */
+	private static void restore(BoardStore store, byte snapshot[])
+	{
+		CellState states[] = CellState.values();
+		
+		for(int index = 0; index < snapshot.length; index++)
+		{
+			store.setRealState(index, states[snapshot[index]]);
+		}
+	}
+	
+	/**
+	 * The original count loop with eight bounds checked neighbours
+	 */
+	private static void countBranchy(BoardStore store)
+	{
+		for(int i = 0; i < store.getWidth(); i++)
+		{
+			for(int j = 0; j < store.getHeight(); j++)
+			{
+				//If this cell is not a bomb
+				if(store.getRealState(store.index(i, j)) != CellState.BOMB)
+				{
+					//Count how many bombs are near this cell
+					int count = 0;
+					
+					//Top left cell
+					if(i - 1 >= 0 && j - 1 >= 0 && store.getRealState(store.index(i - 1, j - 1)) == CellState.BOMB) count++;
+					//Middle left cell
+					if(i - 1 >= 0 && store.getRealState(store.index(i - 1, j)) == CellState.BOMB) count++;
+					//Bottom left cell
+					if(i - 1 >= 0 && j + 1 < store.getHeight() && store.getRealState(store.index(i - 1, j + 1)) == CellState.BOMB) count++;
+					//Top middle cell
+					if(j - 1 >= 0 && store.getRealState(store.index(i, j - 1)) == CellState.BOMB) count++;
+					//Top right cell
+					if(i + 1 < store.getWidth() && j - 1 >= 0 && store.getRealState(store.index(i + 1, j - 1)) == CellState.BOMB) count++;
+					//Middle right cell
+					if(i + 1 < store.getWidth() && store.getRealState(store.index(i + 1, j)) == CellState.BOMB) count++;
+					//Bottom right cell
+					if(i + 1 < store.getWidth() && j + 1 < store.getHeight() && store.getRealState(store.index(i + 1, j + 1)) == CellState.BOMB) count++;
+					//Bottom middle cell
+					if(j + 1 < store.getHeight() && store.getRealState(store.index(i, j + 1)) == CellState.BOMB) count++;
+					
+					//Only if the count differs from 0 i change the texture
+					if(count > 0)
+					{
+						store.setRealState(store.index(i, j), CellState.values()[1 + count]);
+					}
+				}
+			}
+		}
+	}
+}
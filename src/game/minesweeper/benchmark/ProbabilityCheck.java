@@ -0,0 +1,245 @@
+package game.minesweeper.benchmark;
+
+import java.util.SplittableRandom;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.objects.CellState;
+import game.minesweeper.game.solver.ProbabilityEngine;
+
+/**
+ * Check of the probability engine against brute force. Small boards are played with random
+ * safe reveals and random (also wrong) flags, and after every move the engine probabilities
+ * are compared with the ones counted over every placement of the mines on the hidden cells
+ * that agrees with all the revealed numbers.
+ * Usage: ProbabilityCheck [games] [seed]
+ * @author Matteo Pignataro
+ */
+public class ProbabilityCheck
+{
+	/**
+	 * Board configurations (width, height, mines)
+	 */
+	private static final int CONFIGURATIONS[][] = {{5, 5, 5}, {6, 5, 7}, {7, 4, 6}, {8, 6, 12}, {9, 9, 10}};
+	
+	/**
+	 * Positions with more hidden cells are not enumerated
+	 */
+	private static final int MAX_HIDDEN = 22;
+	
+	/**
+	 * Time budget of a probabilities computation, large enough to be always exact (nanoseconds)
+	 */
+	private static final long PROBABILITY_BUDGET = 1_000_000_000;
+	
+	/**
+	 * Maximum difference from the brute force probabilities
+	 */
+	private static final double TOLERANCE = 1e-6;
+	
+	public static void main(String[] args)
+	{
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+		
+		System.out.println(String.format("%-12s %10s %10s %14s", "board", "games", "positions", "max error"));
+		
+		for(int configuration[] : CONFIGURATIONS)
+		{
+			run(configuration, games, seed);
+		}
+	}
+	
+	/**
+	 * Method that plays and checks the games of a configuration
+	 * @param configuration The board width, height and mines
+	 * @param games The number of games
+	 * @param seed The seed of the boards and of the moves
+	 */
+	private static void run(int configuration[], int games, long seed)
+	{
+		BoardEngine engine 				= new BoardEngine(configuration[0], configuration[1], BoardGenerator.withBombs(configuration[2], seed));
+		ProbabilityEngine probabilities = new ProbabilityEngine(engine, PROBABILITY_BUDGET);
+		BoardStore store 				= engine.getStore();
+		SplittableRandom random 		= new SplittableRandom(seed);
+		
+		long positions 	= 0;
+		double maxError = 0;
+		
+		for(int game = 0; game < games; game++)
+		{
+			engine.reset();
+			engine.reveal(random.nextInt(store.getSize()));
+			
+			while(engine.isPlaying())
+			{
+				if(probabilities.compute() && count(store) <= MAX_HIDDEN)
+				{
+					maxError = Math.max(maxError, check(engine, probabilities));
+					positions++;
+				}
+				
+				//All the safe cells are revealed, only the flags are missing
+				int index = pick(store, random, true);
+				if(index == -1) { break; }
+				
+				//A random (also wrong) flag or the reveal of a random safe cell
+				if(random.nextInt(4) == 0)
+				{
+					engine.flag(pick(store, random, false));
+				}
+				else
+				{
+					//A flagged cell is not revealed, so the flag goes first
+					if(store.getState(index) == CellState.FLAG) { engine.flag(index); }
+					engine.reveal(index);
+				}
+			}
+		}
+		
+		System.out.println(String.format("%-12s %10d %10d %14.3e", configuration[0] + "x" + configuration[1] + "/" + configuration[2], games, positions, maxError));
+	}
+	
+	/**
+	 * Method that compares the engine probabilities with the brute force ones
+	 * @param engine The game engine
+	 * @param probabilities The probability engine with the computed position
+	 * @return The maximum difference
+	 */
+	private static double check(BoardEngine engine, ProbabilityEngine probabilities)
+	{
+		BoardStore store 	= engine.getStore();
+		int height 			= store.getHeight();
+		int mines 			= engine.getBombsNumber();
+		
+		if(!probabilities.isExact())
+		{
+			throw new RuntimeException("Approximated position with a large budget [ProbabilityCheck]");
+		}
+		
+		//Hidden cells (the flags are not trusted) and their bit
+		int hidden[] = new int[count(store)];
+		int bit[] = new int[store.getSize()];
+		int size = 0;
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			if(isHidden(store.getStateOrdinal(index)))
+			{
+				bit[index] = size;
+				hidden[size++] = index;
+			}
+		}
+		
+		//Every number is a mask of hidden neighbours and a number of mines
+		long masks[] = new long[store.getSize()];
+		int needs[] = new int[store.getSize()];
+		int numbers = 0;
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			int state = store.getStateOrdinal(index);
+			if(state < CellState.CELL_1.ordinal() || state > CellState.CELL_8.ordinal()) { continue; }
+			
+			int i = index / height;
+			int j = index - i * height;
+			long mask = 0;
+			
+			for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, store.getWidth() - 1); ni++)
+			{
+				for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+				{
+					if(isHidden(store.getStateOrdinal(ni * height + nj))) { mask |= 1L << bit[ni * height + nj]; }
+				}
+			}
+			
+			masks[numbers] = mask;
+			needs[numbers++] = state - 1;
+		}
+		
+		//Every placement of the mines on the hidden cells (combinations in increasing order)
+		double mine[] = new double[size];
+		double total = 0;
+		if(mines <= size)
+		{
+			long last = mines == 0 ? 0 : ((1L << mines) - 1) << (size - mines);
+			
+			for(long placement = (1L << mines) - 1; ; )
+			{
+				boolean consistent = true;
+				for(int n = 0; n < numbers && consistent; n++)
+				{
+					consistent = Long.bitCount(placement & masks[n]) == needs[n];
+				}
+				
+				if(consistent)
+				{
+					total++;
+					for(long bits = placement; bits != 0; bits &= bits - 1) { mine[Long.numberOfTrailingZeros(bits)]++; }
+				}
+				
+				if(placement == last) { break; }
+				
+				//Next combination with the same number of bits
+				long lowest = placement & -placement;
+				long ripple = placement + lowest;
+				placement = ripple | (((placement ^ ripple) >>> 2) / lowest);
+			}
+		}
+		
+		double maxError = 0;
+		for(int k = 0; k < size; k++)
+		{
+			double error = Math.abs(mine[k] / total - probabilities.getProbability(hidden[k]));
+			
+			if(!(error <= TOLERANCE))
+			{
+				throw new RuntimeException("Wrong probability of the cell " + hidden[k] + ": " + probabilities.getProbability(hidden[k]) + " instead of " + mine[k] / total + " [ProbabilityCheck]");
+			}
+			
+			maxError = Math.max(maxError, error);
+		}
+		
+		return maxError;
+	}
+	
+	/**
+	 * Method that picks a random hidden (also flagged) cell
+	 * @param store The board store
+	 * @param random The random source
+	 * @param safe True to pick only among the cells without a mine
+	 * @return The linear index of the cell (-1 if there is none)
+	 */
+	private static int pick(BoardStore store, SplittableRandom random, boolean safe)
+	{
+		int cells[] = new int[store.getSize()];
+		int size = 0;
+		
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			if(isHidden(store.getStateOrdinal(index)) && !(safe && store.getRealState(index) == CellState.BOMB)) { cells[size++] = index; }
+		}
+		
+		return size == 0 ? -1 : cells[random.nextInt(size)];
+	}
+	
+	/**
+	 * @return The number of hidden (also flagged) cells
+	 */
+	private static int count(BoardStore store)
+	{
+		int count = 0;
+		
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			if(isHidden(store.getStateOrdinal(index))) { count++; }
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * @param state The visible state ordinal
+	 * @return If the cell is hidden for the solver (flags are not trusted)
+	 */
+	private static boolean isHidden(int state) { return state == CellState.CELL_HIDDEN.ordinal() || state == CellState.FLAG.ordinal(); }
+}
@@ -1,12 +1,13 @@
 package game.minesweeper.game;
 
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_A;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_G;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_H;
 import static org.lwjgl.glfw.GLFW.glfwInit;
 import static org.lwjgl.opengl.GL11.GL_BLEND;
-import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
 import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
 import static org.lwjgl.opengl.GL11.glBlendFunc;
-import static org.lwjgl.opengl.GL11.glClear;
 import static org.lwjgl.opengl.GL11.glClearColor;
 import static org.lwjgl.opengl.GL11.glEnable;
 
@@ -18,13 +19,26 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import org.lwjgl.opengl.GL;
 import org.w3c.dom.Document;
 
-import game.minesweeper.game.objects.Cell;
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.GameState;
+import game.minesweeper.game.board.Topology;
 import game.minesweeper.game.objects.CellTable;
 import game.minesweeper.game.objects.Menu;
-import game.minesweeper.game.objects.CellTable.GameState;
+import game.minesweeper.game.solver.LinearSolver;
+import game.minesweeper.game.solver.PatternSolver;
+import game.minesweeper.game.solver.PatternTable;
+import game.minesweeper.game.solver.ProbabilityEngine;
+import game.minesweeper.game.solver.RuleSolver;
+import game.minesweeper.game.solver.Solver;
+import game.minesweeper.game.solver.SolverChain;
+import game.minesweeper.game.solver.SolverPlayer;
+import game.minesweeper.render.BoardGrid;
 import game.minesweeper.render.DrawableElement;
+import game.minesweeper.render.InstancedVAO;
+import game.minesweeper.render.Renderable;
 import game.minesweeper.render.Shader;
 import game.minesweeper.render.Texture;
+import game.minesweeper.render.TextureGridVAO;
 import game.minesweeper.render.VAO;
 import game.minesweeper.window.Window;
 import game.minesweeper.window.listener.MouseEvent;
@@ -42,12 +56,21 @@ public class Game
 	private static int heightCell;
 	private static int sizeCell;
 	private static float difficulty;
+	private static long seed;
+	private static int mines;
+	private static boolean noGuess;
+	private static Topology.Type topology;
 	
 	private static final int screenWidthReference 	= 1920;
 	private static final int screenHeightReference 	= 1080;
 	
 	private static float scaleFactor;
 	
+	/**
+	 * Number of cells above which the board is drawn as a texture
+	 */
+	private static final int textureRenderThreshold = 250000;
+	
 	/**
 	 * Main window
 	 */
@@ -63,39 +86,79 @@ public class Game
 	 */
 	private static Menu menu;
 	
+	/**
+	 * Solver player for the hints (H key), the auto play (A key) and the best guess (G key)
+	 */
+	private static SolverPlayer solverPlayer;
+	
+	/**
+	 * If the auto play is active
+	 */
+	private static boolean autoPlay;
+	
+	/**
+	 * Time given to the auto play in every game loop (nanoseconds)
+	 */
+	private static final long autoPlayBudget = 10_000_000;
+	
+	/**
+	 * Precomputed local patterns (built by PatternTableGenerator)
+	 */
+	private static final String patternTable = "Patterns/patterns.bin";
+	
+	/**
+	 * Time between two polls of the no guess generator while the board waits for it (seconds)
+	 */
+	private static final double waitingPoll = 0.05;
+	
+	/**
+	 * Time budget of a probabilities computation (nanoseconds)
+	 */
+	private static final long probabilityBudget = 50_000_000;
+	
 	/**
 	 * Method to initialize all that is needed for the cell table
 	 */
 	private static void initCells()
 	{
-		//Create texture and shader for cells
-		Shader cellShader = new Shader("Shaders/buttonVertex.glsl", "Shaders/buttonFragment.glsl", null);
-		Texture cellTexture = new Texture("Textures/ButtonTexture.png");
-				
-		//Create the VAO for cells
-		VAO cellVAO = new VAO(cellShader, cellTexture);
-		
 		//Create the cellTable
-		table = new CellTable(0, 3 * sizeCell, widthCell, heightCell, sizeCell, difficulty);
+		//The bombs are placed with the exact count when configured, with the density otherwise
+		BoardGenerator generator = mines > 0 ? BoardGenerator.withBombs(mines, seed) : BoardGenerator.withDensity(1 - difficulty, seed);
+		table = new CellTable(0, 3 * sizeCell, widthCell, heightCell, sizeCell, generator, noGuess, topology);
+		
+		//Create the texture for cells
+		Texture cellTexture = new Texture("Textures/ButtonTexture.png");
 		
-		//Create a temporary copy of the table
-		Cell[][] temp = table.getTable();
+		//Create the VAO for cells. Both renderers read the states straight from the board store
+		//and the changes from the grid that follows the engine
+		BoardGrid grid = new BoardGrid(table.getEngine());
+		Renderable cellVAO;
 		
-		//Add all the cells to the VAO
-		for(int i = 0; i < temp.length; i++)
+		if(table.getStore().getSize() > textureRenderThreshold && TextureGridVAO.isSupported(grid))
 		{
-			for(int j = 0; j < temp[i].length; j++)
-			{
-				cellVAO.addElement(temp[i][j]);
-			}
+			//Very large boards: one texel per cell and a single quad
+			Shader cellShader = new Shader("Shaders/gridVertex.glsl", "Shaders/gridFragment.glsl", null);
+			cellVAO = new TextureGridVAO(cellShader, cellTexture, grid, table.getPosX(), table.getPosY(), sizeCell);
+		}
+		else
+		{
+			//One instance per cell
+			Shader cellShader = new Shader("Shaders/cellVertex.glsl", "Shaders/buttonFragment.glsl", null);
+			cellVAO = new InstancedVAO(cellShader, cellTexture, grid, table.getPosX(), table.getPosY(), sizeCell);
 		}
-		
-		//Add the cell attributes
-		cellVAO.addAttribute(2);
-		cellVAO.addAttribute(2);
 		
 		//At the end add the VAO to the window
 		window.addVAO(cellVAO);
+		
+		autoPlay = false;
+		
+		//The solvers and the patterns know only the classic grid
+		if(topology != Topology.Type.GRID) { return; }
+		
+		//The known patterns first, the rule solver (it follows the engine changes) and the elimination only when the patterns find nothing
+		Solver solver = new SolverChain(new RuleSolver(table.getEngine()), new LinearSolver(table.getEngine()));
+		solver = new PatternSolver(table.getEngine(), PatternTable.load(patternTable), solver);
+		solverPlayer = new SolverPlayer(table.getEngine(), solver, new ProbabilityEngine(table.getEngine(), probabilityBudget));
 	}
 	
 	/**
@@ -154,6 +217,15 @@ public class Game
 			sizeCell	= cellSize;
 			difficulty 	= 1 - diff / 100.0f;
 			
+			//Optional seed (same seed same boards) and exact number of mines
+			seed 		= parseOptional(configDocument, "seed", System.nanoTime());
+			mines 		= (int) Math.max(0, Math.min(parseOptional(configDocument, "mines", 0), (long) width * height));
+			//Optional boards solvable without guessing (1 to enable)
+			noGuess 	= parseOptional(configDocument, "noGuess", 0) != 0;
+			//Optional topology of the board (grid, torus or hex)
+			topology 	= configDocument.getElementsByTagName("topology").getLength() == 0 ? Topology.Type.GRID :
+						  Topology.Type.valueOf(configDocument.getElementsByTagName("topology").item(0).getTextContent().trim().toUpperCase());
+			
 		} catch (Exception e) 
 		{
 			// Failed parsing i throw a runtime error
@@ -162,6 +234,23 @@ public class Game
 		}
 	}
 	
+	/**
+	 * Method to parse an optional numeric element of the config document
+	 * @param configDocument The parsed document
+	 * @param tag The element name
+	 * @param defaultValue The value used when the element is missing
+	 * @return The parsed value
+	 */
+	private static long parseOptional(Document configDocument, String tag, long defaultValue)
+	{
+		if(configDocument.getElementsByTagName(tag).getLength() == 0)
+		{
+			return defaultValue;
+		}
+		
+		return Long.parseLong(configDocument.getElementsByTagName(tag).item(0).getTextContent().trim());
+	}
+	
 	/**
 	 * Initializes all the class objects and sets them
 	 */
@@ -187,7 +276,9 @@ public class Game
 		parseConfig();
 		
 		//Create the window object
-		window = new Window("Mine Sweeper", widthCell * sizeCell, heightCell * sizeCell + 3 * sizeCell, false);
+		//The shifted columns of the hex boards need half a cell more
+		int shift = topology == Topology.Type.HEX ? sizeCell / 2 : 0;
+		window = new Window("Mine Sweeper", widthCell * sizeCell, heightCell * sizeCell + 3 * sizeCell + shift, false);
 		
 		//Create all OpenGL bindings
 		GL.createCapabilities();
@@ -200,6 +291,7 @@ public class Game
 		
 		//Visualize the window
 		window.showWindow();
+		showWaiting();
 		
 		//Set the clear color to black
 		glClearColor(0.617f, 0.617f, 0.617f, 1.0f);
@@ -219,20 +311,121 @@ public class Game
 		
 	}
 	
+	/**
+	 * Method that tells the player when the no guess board is still being generated
+	 */
+	private static void showWaiting()
+	{
+		if(table.isWaiting())
+		{
+			window.setTitle(window.getName() + " - generating a no guess board...");
+		}
+	}
+	
+	/**
+	 * Method that tells the player when the no guess board could not be verified
+	 */
+	private static void warnGuessing()
+	{
+		if(table.needsGuessing())
+		{
+			JOptionPane.showMessageDialog(null, "No board solvable without guessing was found, this board can need a guess", "No guess board", JOptionPane.WARNING_MESSAGE);
+		}
+	}
+	
+	/**
+	 * Method that computes how long the game loop can sleep waiting for events
+	 * @return The timeout in seconds, negative to wait without limits
+	 */
+	private static double getWaitTimeout()
+	{
+		//The auto play continues without waiting
+		if(autoPlay) { return 0; }
+		
+		//The no guess board is polled until its layout is ready
+		if(table.isWaiting()) { return waitingPoll; }
+		
+		switch(table.getGameState())
+		{
+			//The timer is running so i wake up at the next tick
+			case GAME_RUN:
+			case GAME_SUCCESS:
+				return menu.getSecondsToNextTick();
+			
+			//Only the input can change something
+			default:
+				return -1;
+		}
+	}
+	
 	/**
 	 * Game loop
 	 */
 	private static void run()
 	{
+		//Event reused for all the mouse events
+		MouseEvent event = new MouseEvent();
+		
 		//While the game is running
 		while(window.isOpen())
 		{	
-			//Take the event
-			MouseEvent event = window.getLastMouseEvent();
+			//Handle all the pending events
+			while(window.pollMouseEvent(event))
+			{
+				//Call the handleMouseEvent functions
+				table.handleMouseEvent(event);
+				menu.handleMouseEvent(event);
+				
+				//Check if we should reset the game
+				if(menu.shouldReset())
+				{
+					menu.resetCounts();
+					table.resetTable();
+					showWaiting();
+				}
+			}
 			
-			//Call the handleMouseEvent functions
-			table.handleMouseEvent(event);
-			menu.handleMouseEvent(event);
+			//Handle the pressed keys
+			for(int key = window.pollKey(); key != -1; key = window.pollKey())
+			{
+				//No solver on the other topologies
+				if(solverPlayer == null) { continue; }
+				
+				if(key == GLFW_KEY_H)
+				{
+					//Apply a single guaranteed move
+					solverPlayer.hint();
+				}
+				else if(key == GLFW_KEY_A)
+				{
+					//Start or stop the auto play
+					autoPlay = !autoPlay;
+				}
+				else if(key == GLFW_KEY_G)
+				{
+					//Reveal the cell with the lowest mine probability
+					solverPlayer.guess();
+				}
+			}
+			
+			//The auto play applies the guaranteed moves and stops when there are no more
+			if(autoPlay && solverPlayer.play(autoPlayBudget) == 0)
+			{
+				autoPlay = false;
+			}
+			
+			//If the game has just been won i message the player
+			if(table.getGameState() == GameState.GAME_WIN)
+			{
+				JOptionPane.showMessageDialog(null, "You won the game!", "You won!", JOptionPane.INFORMATION_MESSAGE);
+			}
+			
+			//Advance the table state, a waiting no guess board starts when its layout is ready
+			if(table.update())
+			{
+				window.setTitle(window.getName());
+				warnGuessing();
+			}
 			
 			//If the game state is running
 			if(table.getGameState() != GameState.GAME_STOP)
@@ -244,21 +437,11 @@ public class Game
 			//I update the number of minest counter
 			menu.showNumber(table.getBombsNumber() - table.getFlagsNumber());
 			
-			//Check if we should reset the game
-			if(menu.shouldReset())
-			{
-				menu.resetCounts();
-				table.resetTable();
-			}
-			
-			//Draw the VAOs
+			//Draw the VAOs (only if something changed)
 			window.drawVAO();
 			
-			//Update the window
-			window.update();
-			
-			//Reset the scene to default color
-			glClear(GL_COLOR_BUFFER_BIT);
+			//Wait for the input or for the next timer tick
+			window.waitEvents(getWaitTimeout());
 		}
 		
 		//After i stop and clean all
@@ -0,0 +1,114 @@
+package game.minesweeper.game.board;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class splits a board store into bands of contiguous lines (all the cells with
+ * the same i, that are contiguous in the store) and runs a work on every band inside
+ * the common ForkJoinPool. The bands depend only on the board dimensions, so a work
+ * that derives its data from the band number gives the same result with any number of threads.
+ * @author Matteo Pignataro
+ */
+final class BoardBands
+{
+	/**
+	 * Number of cells (roughly) inside a single band
+	 */
+	private static final int BAND_CELLS = 1 << 16;
+	
+	/**
+	 * Work executed on a single band
+	 * @author Matteo Pignataro
+	 */
+	interface BandWork
+	{
+		/**
+		 * @param band The band number
+		 * @param iFrom The first line of the band
+		 * @param iTo The line after the last one of the band
+		 * @return A partial result that is summed over all the bands
+		 */
+		public long run(int band, int iFrom, int iTo);
+	}
+	
+	/**
+	 * Task that splits the bands range until a single band remains
+	 * @author Matteo Pignataro
+	 */
+	private static class BandTask extends RecursiveTask<Long>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final BandWork work;
+		private final int lines;
+		private final int width;
+		private final int from;
+		private final int to;
+		
+		BandTask(BandWork work, int lines, int width, int from, int to)
+		{
+			this.work 	= work;
+			this.lines 	= lines;
+			this.width 	= width;
+			this.from 	= from;
+			this.to 	= to;
+		}
+		
+		@Override
+		protected Long compute()
+		{
+			//Single band, i execute the work
+			if(to - from == 1)
+			{
+				return work.run(from, from * lines, Math.min(width, (from + 1) * lines));
+			}
+			
+			//Otherwise i split the range in two halves
+			int middle = (from + to) >>> 1;
+			BandTask left 	= new BandTask(work, lines, width, from, middle);
+			BandTask right 	= new BandTask(work, lines, width, middle, to);
+			left.fork();
+			
+			return right.compute() + left.join();
+		}
+	}
+	
+	private BoardBands() {}
+	
+	/**
+	 * @param store The board store
+	 * @return The number of lines inside every band
+	 */
+	static int lines(BoardStore store) { return Math.max(1, BAND_CELLS / store.getHeight()); }
+	
+	/**
+	 * @param store The board store
+	 * @return The number of bands of the board
+	 */
+	static int count(BoardStore store)
+	{
+		int lines = lines(store);
+		return (store.getWidth() + lines - 1) / lines;
+	}
+	
+	/**
+	 * Method that runs the work on every band, in parallel when there is more than one band
+	 * @param store The board store
+	 * @param work The work to execute
+	 * @return The sum of all the partial results
+	 */
+	static long invoke(BoardStore store, BandWork work)
+	{
+		int lines = lines(store);
+		int bands = count(store);
+		
+		//Small boards are done by the calling thread
+		if(bands == 1)
+		{
+			return work.run(0, 0, store.getWidth());
+		}
+		
+		return ForkJoinPool.commonPool().invoke(new BandTask(work, lines, store.getWidth(), 0, bands));
+	}
+}
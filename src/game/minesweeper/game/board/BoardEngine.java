@@ -0,0 +1,482 @@
+package game.minesweeper.game.board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Headless game engine: it holds the board and applies the game rules to the moves
+ * (reveal, flag and chord) expressed in cell coordinates. It has no dependency on the
+ * rendering, on the window or on Swing, so it can be driven by solvers, simulations
+ * and benchmarks as well as by the CellTable.
+ * The bombs are placed at the first reveal, leaving its 3x3 area safe.
+ * Every operation that changes the board publishes its change set (changed cells and
+ * their new visible states) to the registered listeners, after updating the frontier index.
+ * @author Matteo Pignataro
+ */
+public class BoardEngine
+{
+	/**
+	 * Game state
+	 */
+	private GameState state;
+	
+	/**
+	 * Generator that places the bombs of every new board
+	 */
+	private final BoardGenerator generator;
+	
+	/**
+	 * Primitive board store
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * Reveal engine that opens the cells of the store
+	 */
+	private final RevealEngine revealEngine;
+	
+	/**
+	 * Frontier cells and neighbour counts, updated with every change set
+	 */
+	private final FrontierIndex frontier;
+	
+	/**
+	 * If the bombs of the current board have been placed
+	 */
+	private boolean generated;
+	
+	/**
+	 * Number of actual bombs
+	 */
+	private int bombNumber;
+	
+	/**
+	 * Number of actual discovered bombs (correctly flagged)
+	 */
+	private int bombDiscovered;
+	
+	/**
+	 * Number of flags placed on cells that are not bombs
+	 */
+	private int wrongFlags;
+	
+	/**
+	 * Number of hidden cells that are not bombs
+	 */
+	private int hiddenSafe;
+	
+	/**
+	 * Number of placed flags
+	 */
+	private int flags;
+	
+	/**
+	 * Consumers of the change sets
+	 */
+	private final List<ChangeListener> listeners;
+	
+	/**
+	 * Constructor
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param generator The generator that places the bombs
+	 */
+	public BoardEngine(int width, int height, BoardGenerator generator) { this(width, height, generator, Topology.Type.GRID); }
+	
+	/**
+	 * Constructor
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param generator The generator that places the bombs
+	 * @param type The topology of the board
+	 */
+	public BoardEngine(int width, int height, BoardGenerator generator, Topology.Type type)
+	{
+		//I expect the generator not null
+		if(generator == null)
+		{
+			throw new NullPointerException("Error generator null pointer [BoardEngine]");
+		}
+		
+		this.generator = generator;
+		listeners = new ArrayList<ChangeListener>();
+		
+		//Instance the store (in case of negative or 0 width or height it uses the value 10)
+		store = new BoardStore(width, height, type);
+		revealEngine = new RevealEngine(store);
+		frontier = new FrontierIndex(store);
+		
+		//Start a new game
+		initGame();
+	}
+	
+	/**
+	 * Method to reset the counters and the state, the bombs are placed at the first reveal
+	 */
+	private void initGame()
+	{
+		//Init all the counters to 0
+		bombNumber		= 0;
+		bombDiscovered 	= 0;
+		wrongFlags		= 0;
+		flags 			= 0;
+		hiddenSafe 		= store.getSize();
+		generated 		= false;
+		
+		//Set the game status to run
+		state = GameState.GAME_RUN;
+	}
+	
+	/**
+	 * Method to start a new game: every cell is back to hidden with no bomb
+	 */
+	public void reset()
+	{
+		store.getChanges().clear();
+		store.clear();
+		initGame();
+		publish();
+	}
+	
+	/**
+	 * Method to start a new game on a prepared layout: the mines are placed
+	 * and the layout start cell is revealed
+	 * @param layout The prepared layout (same dimensions of the board)
+	 */
+	public void start(BoardLayout layout)
+	{
+		//I expect the layout not null
+		if(layout == null)
+		{
+			throw new NullPointerException("Error layout null pointer [BoardEngine]");
+		}
+		
+		store.getChanges().clear();
+		store.clear();
+		initGame();
+		
+		//Place the layout mines and assign the numbers
+		bombNumber 	= layout.place(store);
+		hiddenSafe 	= store.getSize() - bombNumber;
+		NeighbourCounter.count(store);
+		generated 	= true;
+		publish();
+		
+		//Open the start cell
+		reveal(layout.getStart());
+	}
+	
+	/**
+	 * Method that places the bombs around the first revealed cell and assigns the numbers
+	 * @param safeIndex The linear index of the first revealed cell, its 3x3 area has no bombs
+	 */
+	private void generate(int safeIndex)
+	{
+		//Randomly assign the bombs
+		bombNumber = generator.generate(store, safeIndex);
+		
+		//Every cell that is not a bomb starts hidden
+		hiddenSafe = store.getSize() - bombNumber;
+		
+		//After all the bombs have been assigned i can calculate the numbers (in parallel bands)
+		NeighbourCounter.count(store);
+		
+		generated = true;
+	}
+	
+	/**
+	 * Method to reveal a cell (and its blank region if it is a blank cell)
+	 * @param i The column
+	 * @param j The row
+	 * @return The number of revealed cells or RevealEngine.EXPLODED if the cell was a bomb
+	 */
+	public int reveal(int i, int j) { return isInside(i, j) ? reveal(store.index(i, j)) : 0; }
+	
+	/**
+	 * Method to reveal a cell (and its blank region if it is a blank cell)
+	 * @param index The linear cell index
+	 * @return The number of revealed cells or RevealEngine.EXPLODED if the cell was a bomb
+	 */
+	public int reveal(int index)
+	{
+		//Moves are accepted only while the game is running
+		if(!isPlaying()) { return 0; }
+		
+		store.getChanges().clear();
+		
+		//The first reveal places the bombs
+		if(!generated)
+		{
+			generate(index);
+		}
+		
+		int revealed = open(index);
+		
+		//Check the victory after the move
+		checkVictory();
+		publish();
+		
+		return revealed;
+	}
+	
+	/**
+	 * Method to place or remove a flag on a hidden cell
+	 * @param i The column
+	 * @param j The row
+	 * @return If the flag has been placed or removed
+	 */
+	public boolean flag(int i, int j) { return isInside(i, j) && flag(store.index(i, j)); }
+	
+	/**
+	 * Method to place or remove a flag on a hidden cell. Until the first reveal there
+	 * are no bombs, so the flags are ignored.
+	 * @param index The linear cell index
+	 * @return If the flag has been placed or removed
+	 */
+	public boolean flag(int index)
+	{
+		if(!isPlaying() || !generated) { return false; }
+		
+		store.getChanges().clear();
+		
+		if(store.getState(index) == CellState.FLAG)
+		{
+			//If it is a flag i remove it
+			store.setState(index, CellState.CELL_HIDDEN);
+			//Decrement the flags counter
+			flags--;
+			//Decrement the discovered bombs if it is a bomb, otherwise the wrong flags
+			if(store.getRealState(index) == CellState.BOMB)
+			{
+				bombDiscovered--;
+			}
+			else
+			{
+				wrongFlags--;
+				hiddenSafe++;
+			}
+			
+			//If the state was on success and i left behind a bomb i put it on run
+			if(bombDiscovered < bombNumber)
+			{
+				state = GameState.GAME_RUN;
+			}
+		}
+		else if(store.getState(index) == CellState.CELL_HIDDEN)
+		{
+			//I put a flag
+			store.setState(index, CellState.FLAG);
+			//Increment the flags counter
+			flags++;
+			//If it is a bomb i increment also the discovered counter, otherwise the wrong flags
+			if(store.getRealState(index) == CellState.BOMB)
+			{
+				bombDiscovered++;
+			}
+			else
+			{
+				wrongFlags++;
+				hiddenSafe--;
+			}
+			
+			//If the discovered bombs are the same number as the bombs i put the game state in success
+			if(bombDiscovered == bombNumber)
+			{
+				state = GameState.GAME_SUCCESS;
+			}
+		}
+		else
+		{
+			//Revealed cells cannot be flagged
+			return false;
+		}
+		
+		//Then i check the victory
+		checkVictory();
+		publish();
+		return true;
+	}
+	
+	/**
+	 * Method to reveal all the hidden neighbours of a revealed number
+	 * when the flags near it are at least the number
+	 * @param i The column
+	 * @param j The row
+	 * @return The number of revealed cells or RevealEngine.EXPLODED if a bomb was revealed
+	 */
+	public int chord(int i, int j) { return isInside(i, j) ? chord(store.index(i, j)) : 0; }
+	
+	/**
+	 * Method to reveal all the hidden neighbours of a revealed number
+	 * when the flags near it are at least the number
+	 * @param index The linear cell index
+	 * @return The number of revealed cells or RevealEngine.EXPLODED if a bomb was revealed
+	 */
+	public int chord(int index)
+	{
+		if(!isPlaying()) { return 0; }
+		
+		//Only revealed numbers can be chorded
+		if(store.getState(index) != store.getRealState(index) || store.getRealState(index) == CellState.BOMB || store.getRealState(index) == CellState.CELL_NONE)
+		{
+			return 0;
+		}
+		
+		//The flags near the cell are counted by the frontier index, if they are less than the number i do nothing
+		if(frontier.getFlagsNear(index) < store.getState(index).NUMBER)
+		{
+			return 0;
+		}
+		
+		store.getChanges().clear();
+		
+		//All the hidden neighbours go into the reveal work stack at once (flags are not touched)
+		int revealed = revealEngine.revealAround(index);
+		
+		if(revealed == RevealEngine.EXPLODED)
+		{
+			//Set the game state to fail
+			state = GameState.GAME_FAIL;
+		}
+		else
+		{
+			//All the revealed cells were hidden and safe
+			hiddenSafe -= revealed;
+		}
+		
+		//Check the victory after the move
+		checkVictory();
+		publish();
+		
+		return revealed;
+	}
+	
+	/**
+	 * Method that reveals a cell with the reveal engine and updates the counters
+	 * @param index The linear cell index
+	 * @return The number of revealed cells or RevealEngine.EXPLODED if the cell was a bomb
+	 */
+	private int open(int index)
+	{
+		int revealed = revealEngine.reveal(index);
+		
+		if(revealed == RevealEngine.EXPLODED)
+		{
+			//Set the game state to fail
+			state = GameState.GAME_FAIL;
+		}
+		else
+		{
+			//All the revealed cells were hidden and safe
+			hiddenSafe -= revealed;
+		}
+		
+		return revealed;
+	}
+	
+	/**
+	 * Method that checks if the game has been won
+	 */
+	private void checkVictory()
+	{
+		//A lost game cannot be won
+		if(!isPlaying()) { return; }
+		
+		//If no hidden safe cells are left and all the bombs are flagged the game is won
+		if(bombDiscovered == bombNumber && hiddenSafe == 0)
+		{
+			state = GameState.GAME_WIN;
+		}
+	}
+	
+	/**
+	 * Method that sends the changes of the operation to the listeners
+	 */
+	private void publish()
+	{
+		ChangeSet changes = store.getChanges();
+		
+		if(changes.isEmpty()) { return; }
+		
+		//The index is updated before the listeners read it
+		frontier.update(changes);
+		
+		for(int k = 0; k < listeners.size(); k++)
+		{
+			listeners.get(k).changed(changes);
+		}
+	}
+	
+	/**
+	 * @param listener The consumer of the change sets to add
+	 */
+	public void addChangeListener(ChangeListener listener)
+	{
+		if(listener == null)
+		{
+			throw new NullPointerException("Error listener null pointer [BoardEngine]");
+		}
+		
+		listeners.add(listener);
+	}
+	
+	/**
+	 * @param listener The consumer of the change sets to remove
+	 */
+	public void removeChangeListener(ChangeListener listener) { listeners.remove(listener); }
+	
+	/**
+	 * @return The changes of the last operation (reused by the next one)
+	 */
+	public ChangeSet getLastChanges() { return store.getChanges(); }
+	
+	/**
+	 * Method to stop a game that is over, no more moves are accepted until the reset
+	 */
+	public void stop() { state = GameState.GAME_STOP; }
+	
+	/**
+	 * @return If the game accepts moves
+	 */
+	public boolean isPlaying() { return state == GameState.GAME_RUN || state == GameState.GAME_SUCCESS; }
+	
+	/**
+	 * @param i The column
+	 * @param j The row
+	 * @return If the cell is inside the board
+	 */
+	public boolean isInside(int i, int j) { return i >= 0 && j >= 0 && i < store.getWidth() && j < store.getHeight(); }
+	
+	/**
+	 * @param i The column
+	 * @param j The row
+	 * @return The visible state of the cell
+	 */
+	public CellState getCellState(int i, int j) { return store.getState(store.index(i, j)); }
+	
+	/**
+	 * @return The primitive board store
+	 */
+	public BoardStore getStore() { return store; }
+	
+	/**
+	 * @return The frontier index of the board
+	 */
+	public FrontierIndex getFrontier() { return frontier; }
+	
+	/**
+	 * @return The number of bombs (before the first reveal the ones that the generator will place)
+	 */
+	public int getBombsNumber() { return generated ? bombNumber : generator.expectedBombs(store); }
+	
+	//Simple getters
+	public GameState getState() { return state; }
+	public boolean isGenerated() { return generated; }
+	public int getWidth() { return store.getWidth(); }
+	public int getHeight() { return store.getHeight(); }
+	public int getFlagsNumber() { return flags; }
+	public int getWrongFlagsNumber() { return wrongFlags; }
+	public int getHiddenSafeNumber() { return hiddenSafe; }
+}
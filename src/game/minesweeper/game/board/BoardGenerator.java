@@ -0,0 +1,262 @@
+package game.minesweeper.game.board;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * This class places the bombs inside a board store. It uses a seedable
+ * SplittableRandom: every generated board takes its own split of the
+ * generator, so the same seed always produces the same sequence of boards
+ * and no random source is shared between threads.
+ * Two modes are available: a per cell bomb probability (density) or
+ * an exact number of bombs chosen with selection sampling over the cell indices.
+ * In density mode the board is split into bands, each one with its own split of the
+ * board random, that are filled in parallel.
+ * @author Matteo Pignataro
+ */
+public class BoardGenerator
+{
+	/**
+	 * Enumerates the generation modes
+	 * @author Matteo Pignataro
+	 */
+	public static enum GenerationMode
+	{
+		DENSITY, EXACT_COUNT;
+	}
+	
+	/**
+	 * Generation mode
+	 */
+	private final GenerationMode mode;
+	
+	/**
+	 * Probability that a single cell is a bomb (density mode)
+	 */
+	private final double density;
+	
+	/**
+	 * Number of bombs (exact count mode)
+	 */
+	private final int bombs;
+	
+	/**
+	 * Seed of the generator
+	 */
+	private long seed;
+	
+	/**
+	 * Random source split for every board
+	 */
+	private SplittableRandom random;
+	
+	/**
+	 * Constructor
+	 * @param mode The generation mode
+	 * @param density The bomb probability of every cell (density mode)
+	 * @param bombs The number of bombs (exact count mode)
+	 * @param seed The generator seed
+	 */
+	public BoardGenerator(GenerationMode mode, double density, int bombs, long seed)
+	{
+		//Assign all the variables
+		this.mode 		= mode == null ? GenerationMode.DENSITY : mode;
+		this.density 	= density > 0 && density < 1 ? density : 0.2;
+		this.bombs 		= bombs > 0 ? bombs : 0;
+		
+		setSeed(seed);
+	}
+	
+	/**
+	 * @param density The bomb probability of every cell
+	 * @param seed The generator seed
+	 * @return A generator in density mode
+	 */
+	public static BoardGenerator withDensity(double density, long seed) { return new BoardGenerator(GenerationMode.DENSITY, density, 0, seed); }
+	
+	/**
+	 * @param bombs The number of bombs of every board
+	 * @param seed The generator seed
+	 * @return A generator in exact count mode
+	 */
+	public static BoardGenerator withBombs(int bombs, long seed) { return new BoardGenerator(GenerationMode.EXACT_COUNT, 0, bombs, seed); }
+	
+	/**
+	 * Method to restart the boards sequence from a seed
+	 * @param seed The new seed
+	 */
+	public synchronized void setSeed(long seed)
+	{
+		this.seed = seed;
+		random = new SplittableRandom(seed);
+	}
+	
+	/**
+	 * @return A new random source for the next board
+	 */
+	public synchronized SplittableRandom nextBoardRandom() { return random.split(); }
+	
+	/**
+	 * Method that places the bombs of the next board. The store needs to be cleared.
+	 * @param store The board store
+	 * @return The number of placed bombs
+	 */
+	public int generate(BoardStore store) { return generate(store, -1, nextBoardRandom()); }
+	
+	/**
+	 * Method that places the bombs of the next board leaving the first clicked cell and its
+	 * neighbours without bombs, so that the first click always opens. The store needs to be cleared.
+	 * @param store The board store
+	 * @param safeIndex The linear index of the first clicked cell (-1 for no safe area)
+	 * @return The number of placed bombs
+	 */
+	public int generate(BoardStore store, int safeIndex) { return generate(store, safeIndex, nextBoardRandom()); }
+	
+	/**
+	 * Method that places the bombs with the passed random source. The store needs to be cleared.
+	 * @param store The board store
+	 * @param safeIndex The linear index of the cell that, with its neighbours, has no bombs (-1 for no safe area)
+	 * @param boardRandom The random source of this board
+	 * @return The number of placed bombs
+	 */
+	public int generate(BoardStore store, int safeIndex, SplittableRandom boardRandom)
+	{
+		//Safe area: the cell and its neighbours in the store topology, sorted (empty when there is no safe cell)
+		int safe[] = new int[0];
+		if(safeIndex >= 0 && safeIndex < store.getSize())
+		{
+			Topology topology = store.getTopology();
+			int near[] = new int[topology.getMaxNeighbours() + 1];
+			int count = topology.neighbours(safeIndex, near);
+			
+			near[count++] = safeIndex;
+			safe = Arrays.copyOf(near, count);
+			Arrays.sort(safe);
+		}
+		
+		if(mode == GenerationMode.DENSITY)
+		{
+			return placeDensity(store, safe, boardRandom);
+		}
+		
+		return placeExact(store, safe, boardRandom);
+	}
+	
+	/**
+	 * Method that makes every cell a bomb with the density probability
+	 * @param store The board store
+	 * @param safe The sorted safe cells
+	 * @param boardRandom The random source
+	 * @return The number of placed bombs
+	 */
+	private int placeDensity(BoardStore store, int safe[], SplittableRandom boardRandom)
+	{
+		//The band randoms are split in order, so the board does not depend on the threads
+		SplittableRandom bandRandoms[] = new SplittableRandom[BoardBands.count(store)];
+		for(int band = 0; band < bandRandoms.length; band++)
+		{
+			bandRandoms[band] = boardRandom.split();
+		}
+		
+		int height = store.getHeight();
+		
+		return (int) BoardBands.invoke(store, (band, iFrom, iTo) ->
+		{
+			SplittableRandom bandRandom = bandRandoms[band];
+			long placed = 0;
+			
+			for(int index = iFrom * height; index < iTo * height; index++)
+			{
+				//The safe area is skipped
+				if(isSafe(safe, index)) { continue; }
+				
+				//Percentage of bombs
+				if(bandRandom.nextDouble() < density)
+				{
+					store.setRealState(index, CellState.BOMB);
+					placed++;
+				}
+			}
+			
+			return placed;
+		});
+	}
+	
+	/**
+	 * Method that places exactly the requested bombs (at most all the cells outside the largest safe area).
+	 * Every cell is selected with probability remaining bombs / remaining cells,
+	 * so every layout has the same probability. The selection is sequential.
+	 * @param store The board store
+	 * @param safe The sorted safe cells
+	 * @param boardRandom The random source
+	 * @return The number of placed bombs
+	 */
+	private int placeExact(BoardStore store, int safe[], SplittableRandom boardRandom)
+	{
+		int candidates 	= store.getSize() - safe.length;
+		int remaining 	= Math.min(bombs, safe.length > 0 ? bombCells(store) : candidates);
+		int placed 		= remaining;
+		
+		for(int index = 0; index < store.getSize() && remaining > 0; index++)
+		{
+			//The safe area is skipped
+			if(isSafe(safe, index)) { continue; }
+			
+			if(boardRandom.nextInt(candidates--) < remaining)
+			{
+				store.setRealState(index, CellState.BOMB);
+				remaining--;
+			}
+		}
+		
+		return placed;
+	}
+	
+	/**
+	 * Method that tells how many bombs a board will have before they are placed around
+	 * the first cell: the exact count, or the expected count of the density
+	 * @param store The board store
+	 * @return The number of bombs expected
+	 */
+	public int expectedBombs(BoardStore store)
+	{
+		if(mode == GenerationMode.DENSITY)
+		{
+			return (int) Math.round(density * bombCells(store));
+		}
+		
+		return Math.min(bombs, bombCells(store));
+	}
+	
+	/**
+	 * @param store The board store
+	 * @return The cells that can hold a bomb when there is a safe area: it always reserves the cell and the
+	 * largest neighbourhood of the topology (also on the borders), so the cap does not depend on the first cell
+	 */
+	private static int bombCells(BoardStore store) { return Math.max(0, store.getSize() - store.getTopology().getMaxNeighbours() - 1); }
+	
+	/**
+	 * @param safe The sorted safe cells
+	 * @param index The linear cell index
+	 * @return If the cell is in the safe area (the range check rejects almost every cell)
+	 */
+	private static boolean isSafe(int safe[], int index)
+	{
+		if(safe.length == 0 || index < safe[0] || index > safe[safe.length - 1]) { return false; }
+		
+		for(int k = 0; k < safe.length; k++)
+		{
+			if(safe[k] == index) { return true; }
+		}
+		
+		return false;
+	}
+	
+	//Simple getters
+	public GenerationMode getMode() { return mode; }
+	public double getDensity() { return density; }
+	public int getBombs() { return bombs; }
+	public long getSeed() { return seed; }
+}
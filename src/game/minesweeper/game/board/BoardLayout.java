@@ -0,0 +1,95 @@
+package game.minesweeper.game.board;
+
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Immutable layout of a board prepared in advance: the mines (one bit per cell)
+ * and the designated start cell that is revealed when the layout is played.
+ * @author Matteo Pignataro
+ */
+public class BoardLayout
+{
+	/**
+	 * Board dimensions in cells
+	 */
+	private final int width;
+	private final int height;
+	
+	/**
+	 * Mines bits (one per cell)
+	 */
+	private final long mines[];
+	
+	/**
+	 * Number of mines
+	 */
+	private final int bombs;
+	
+	/**
+	 * Linear index of the start cell
+	 */
+	private final int start;
+	
+	/**
+	 * If the layout has been verified solvable without guessing from the start cell
+	 */
+	private final boolean verified;
+	
+	/**
+	 * Constructor
+	 * @param store The board store with the mines placed
+	 * @param start The linear index of the start cell
+	 * @param verified If the layout is solvable without guessing from the start cell
+	 */
+	public BoardLayout(BoardStore store, int start, boolean verified)
+	{
+		width 			= store.getWidth();
+		height 			= store.getHeight();
+		mines 			= new long[(store.getSize() + 63) >>> 6];
+		this.start 		= start;
+		this.verified 	= verified;
+		
+		//Copy the mines
+		int count = 0;
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			if(store.getRealState(index) == CellState.BOMB)
+			{
+				mines[index >>> 6] |= 1L << index;
+				count++;
+			}
+		}
+		bombs = count;
+	}
+	
+	/**
+	 * Method that places the mines inside a cleared store
+	 * @param store The board store (same dimensions)
+	 * @return The number of placed mines
+	 */
+	public int place(BoardStore store)
+	{
+		if(store.getWidth() != width || store.getHeight() != height)
+		{
+			throw new RuntimeException("Layout and store dimensions differ [BoardLayout]");
+		}
+		
+		for(int word = 0; word < mines.length; word++)
+		{
+			//Only the set bits
+			for(long bits = mines[word]; bits != 0; bits &= bits - 1)
+			{
+				store.setRealState((word << 6) + Long.numberOfTrailingZeros(bits), CellState.BOMB);
+			}
+		}
+		
+		return bombs;
+	}
+	
+	//Simple getters
+	public int getWidth() { return width; }
+	public int getHeight() { return height; }
+	public int getBombs() { return bombs; }
+	public int getStart() { return start; }
+	public boolean isVerified() { return verified; }
+}
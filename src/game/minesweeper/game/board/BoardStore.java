@@ -0,0 +1,179 @@
+package game.minesweeper.game.board;
+
+import java.util.Arrays;
+
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Primitive storage of the whole cell board. Every cell is packed into a single byte:
+ * the high nibble holds the real (undercover) state ordinal and the low nibble holds
+ * the visible state ordinal. Cells are indexed by i * height + j.
+ * Every visible change is listed in the change set of the current operation.
+ * The visible state ordinal is also the tile index inside the texture atlas.
+ * @author Matteo Pignataro
+ */
+public class BoardStore
+{
+	/**
+	 * Cached states array to avoid the values() clone
+	 */
+	private static final CellState STATES[] = CellState.values();
+	
+	/**
+	 * Masks of the two nibbles
+	 */
+	private static final int VISIBLE_MASK 	= 0x0F;
+	private static final int REAL_MASK 		= 0xF0;
+	
+	/**
+	 * Board width in cells
+	 */
+	private final int width;
+	
+	/**
+	 * Board height in cells
+	 */
+	private final int height;
+	
+	/**
+	 * Neighbourhood of the cells
+	 */
+	private final Topology topology;
+	
+	/**
+	 * Packed cells array
+	 */
+	private final byte cells[];
+	
+	/**
+	 * Changes of the current operation
+	 */
+	private final ChangeSet changes;
+	
+	/**
+	 * Constructor of a classic grid board
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 */
+	public BoardStore(int width, int height) { this(width, height, Topology.Type.GRID); }
+	
+	/**
+	 * Constructor
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param type The topology of the board
+	 */
+	public BoardStore(int width, int height, Topology.Type type)
+	{
+		//In case of negative or 0 width or height i use the value 10
+		this.width 	= width > 0 	? width 	: 10;
+		this.height = height > 0 	? height 	: 10;
+		topology 	= Topology.create(type, this.width, this.height);
+		
+		//Instance the arrays
+		cells = new byte[this.width * this.height];
+		changes = new ChangeSet();
+		
+		//Start from a clean board
+		clear();
+	}
+	
+	/**
+	 * Method to reset every cell to hidden with no bomb and mark the whole board as changed
+	 */
+	public void clear()
+	{
+		//Real state none and visible state hidden (large boards are filled in parallel bands)
+		byte packed = pack(CellState.CELL_NONE, CellState.CELL_HIDDEN);
+		BoardBands.invoke(this, (band, iFrom, iTo) ->
+		{
+			Arrays.fill(cells, iFrom * height, iTo * height, packed);
+			return 0;
+		});
+		//The whole board changed
+		changes.markReset();
+	}
+	
+	/**
+	 * @param i The column
+	 * @param j The row
+	 * @return The linear index of the cell
+	 */
+	public int index(int i, int j) { return i * height + j; }
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The visible state
+	 */
+	public CellState getState(int index) { return STATES[cells[index] & VISIBLE_MASK]; }
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The real state
+	 */
+	public CellState getRealState(int index) { return STATES[(cells[index] & REAL_MASK) >>> 4]; }
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The visible state ordinal
+	 */
+	public int getStateOrdinal(int index) { return cells[index] & VISIBLE_MASK; }
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The real state ordinal
+	 */
+	public int getRealStateOrdinal(int index) { return (cells[index] & REAL_MASK) >>> 4; }
+	
+	/**
+	 * Method to change the visible state. It lists the change.
+	 * @param index The linear cell index
+	 * @param state The new visible state
+	 */
+	public void setState(int index, CellState state)
+	{
+		cells[index] = (byte)((cells[index] & REAL_MASK) | state.ordinal());
+		
+		//List the change
+		changes.add(index, state.ordinal());
+	}
+	
+	/**
+	 * Method to change the real state
+	 * @param index The linear cell index
+	 * @param state The new real state
+	 */
+	public void setRealState(int index, CellState state)
+	{
+		cells[index] = (byte)((cells[index] & VISIBLE_MASK) | (state.ordinal() << 4));
+	}
+	
+	/**
+	 * @return The vertical shift of the odd columns in cells (0 for a square grid)
+	 */
+	public float getColumnShift() { return topology.getColumnShift(); }
+	
+	/**
+	 * @return The changes of the current operation
+	 */
+	public ChangeSet getChanges() { return changes; }
+	
+	/**
+	 * @return The raw packed cells, used by the bulk kernels of this package
+	 */
+	byte[] getCells() { return cells; }
+	
+	/**
+	 * Method to pack two states in a single byte
+	 * @param real The real state
+	 * @param visible The visible state
+	 * @return the packed byte
+	 */
+	private static byte pack(CellState real, CellState visible) { return (byte)((real.ordinal() << 4) | visible.ordinal()); }
+	
+	//Simple getters
+	public Topology getTopology() { return topology; }
+	public int getWidth() 	{ return width; }
+	public int getHeight() 	{ return height; }
+	public int getSize() 	{ return cells.length; }
+}
@@ -0,0 +1,15 @@
+package game.minesweeper.game.board;
+
+/**
+ * Interface of the consumers of the changes produced by the board operations
+ * @author Matteo Pignataro
+ */
+public interface ChangeListener
+{
+	/**
+	 * Method called after every operation that changed the board.
+	 * The set is reused by the next operation, so it must not be kept.
+	 * @param changes The changes of the operation
+	 */
+	public void changed(ChangeSet changes);
+}
@@ -0,0 +1,131 @@
+package game.minesweeper.game.board;
+
+import java.util.Arrays;
+
+/**
+ * Compact primitive list of changed cells: the linear indices and the new visible
+ * state ordinals, in the order the changes happened. A reset is not listed cell by
+ * cell: it is reported with the reset flag (every cell back to hidden).
+ * A set with a limit stops listing when the limit is reached and reports the overflow,
+ * so that the consumer can fall back to a whole range.
+ * @author Matteo Pignataro
+ */
+public class ChangeSet
+{
+	/**
+	 * Changed cells indices
+	 */
+	private int indices[];
+	
+	/**
+	 * New visible states ordinals
+	 */
+	private byte states[];
+	
+	/**
+	 * Number of listed changes
+	 */
+	private int size;
+	
+	/**
+	 * Maximum number of listed changes
+	 */
+	private final int limit;
+	
+	/**
+	 * If some changes were not listed because of the limit
+	 */
+	private boolean overflow;
+	
+	/**
+	 * If the board has been reset
+	 */
+	private boolean reset;
+	
+	/**
+	 * Constructor of an unlimited set
+	 */
+	public ChangeSet() { this(Integer.MAX_VALUE); }
+	
+	/**
+	 * Constructor
+	 * @param limit The maximum number of listed changes
+	 */
+	public ChangeSet(int limit)
+	{
+		this.limit = limit > 0 ? limit : 1;
+		
+		//Start small, the arrays grow with the changes
+		indices = new int[Math.min(this.limit, 64)];
+		states 	= new byte[indices.length];
+	}
+	
+	/**
+	 * Method to list a change
+	 * @param index The linear cell index
+	 * @param state The new visible state ordinal
+	 */
+	public void add(int index, int state)
+	{
+		//Over the limit i only remember the overflow
+		if(size == limit)
+		{
+			overflow = true;
+			return;
+		}
+		
+		//Grow the arrays if needed
+		if(size == indices.length)
+		{
+			int length = (int) Math.min((long) limit, indices.length * 2L);
+			indices = Arrays.copyOf(indices, length);
+			states 	= Arrays.copyOf(states, length);
+		}
+		
+		indices[size] 	= index;
+		states[size] 	= (byte) state;
+		size++;
+	}
+	
+	/**
+	 * Method to report a reset: the listed changes are dropped because every cell is hidden
+	 */
+	public void markReset()
+	{
+		size 		= 0;
+		overflow 	= false;
+		reset 		= true;
+	}
+	
+	/**
+	 * Method to empty the set
+	 */
+	public void clear()
+	{
+		size 		= 0;
+		overflow 	= false;
+		reset 		= false;
+	}
+	
+	/**
+	 * @return If there is nothing to report
+	 */
+	public boolean isEmpty() { return size == 0 && !overflow && !reset; }
+	
+	/**
+	 * @param k The change number
+	 * @return The linear index of the changed cell
+	 */
+	public int getIndex(int k) { return indices[k]; }
+	
+	/**
+	 * @param k The change number
+	 * @return The new visible state ordinal of the changed cell
+	 */
+	public int getState(int k) { return states[k]; }
+	
+	//Simple getters
+	public int size() { return size; }
+	public boolean isOverflow() { return overflow; }
+	public boolean isReset() { return reset; }
+}
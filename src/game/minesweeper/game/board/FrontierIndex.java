@@ -0,0 +1,264 @@
+package game.minesweeper.game.board;
+
+import java.util.Arrays;
+
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Incremental index of the frontier: the hidden cells (flagged ones included, the solvers do
+ * not trust the flags) next to at least one revealed number. The frontier is a primitive int set
+ * (members array plus the position of every cell) so it can be iterated in time proportional
+ * to its size. Every cell also keeps the number of its hidden (not flagged) neighbours and of
+ * its flagged neighbours, packed in a byte: low nibble hidden, high nibble flags, and the index
+ * counts all the hidden cells of the board (frontier or not).
+ * The engine updates the index with the change set of every operation before publishing it.
+ * A cell leaves the hidden states only when it is revealed and a revealed cell stays revealed
+ * until the reset, so the previous state of every change is known from the new one.
+ * @author Matteo Pignataro
+ */
+public class FrontierIndex
+{
+	/**
+	 * States ordinals used in the hot loops
+	 */
+	private static final int HIDDEN = CellState.CELL_HIDDEN.ordinal();
+	private static final int FLAG 	= CellState.FLAG.ordinal();
+	private static final int CELL_1 = CellState.CELL_1.ordinal();
+	private static final int CELL_8 = CellState.CELL_8.ordinal();
+	
+	/**
+	 * Count nibbles
+	 */
+	private static final int HIDDEN_ONE = 0x01;
+	private static final int FLAG_ONE 	= 0x10;
+	
+	/**
+	 * The board store
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * Neighbourhood of the cells and the buffer of the neighbours of a cell
+	 */
+	private final Topology topology;
+	private final int near[];
+	
+	/**
+	 * Packed neighbour counts of every cell
+	 */
+	private final byte counts[];
+	
+	/**
+	 * Frontier members and the position of every cell inside them (-1 if not a member)
+	 */
+	private int members[];
+	private final int position[];
+	private int size;
+	
+	/**
+	 * Number of hidden cells (flagged ones included)
+	 */
+	private int hidden;
+	
+	/**
+	 * Constructor
+	 * @param store The board store
+	 */
+	public FrontierIndex(BoardStore store)
+	{
+		//I expect the store not null
+		if(store == null)
+		{
+			throw new NullPointerException("Error store null pointer [FrontierIndex]");
+		}
+		
+		this.store = store;
+		topology = store.getTopology();
+		near = new int[topology.getMaxNeighbours()];
+		
+		//Instance the arrays
+		counts 		= new byte[store.getSize()];
+		position 	= new int[store.getSize()];
+		members 	= new int[64];
+		
+		rebuild();
+	}
+	
+	/**
+	 * Method that computes the whole index again from the visible states
+	 */
+	public void rebuild()
+	{
+		int height = store.getHeight();
+		
+		//The counts of every band only read the states (in parallel on large boards)
+		BoardBands.invoke(store, (band, iFrom, iTo) ->
+		{
+			int bandNear[] = new int[topology.getMaxNeighbours()];
+			
+			for(int index = iFrom * height; index < iTo * height; index++)
+			{
+				int packed = 0;
+				int count = topology.neighbours(index, bandNear);
+				
+				for(int k = 0; k < count; k++)
+				{
+					int state = store.getStateOrdinal(bandNear[k]);
+					
+					if(state == HIDDEN) 	{ packed += HIDDEN_ONE; }
+					else if(state == FLAG) 	{ packed += FLAG_ONE; }
+				}
+				
+				counts[index] = (byte) packed;
+			}
+			return 0;
+		});
+		
+		//The frontier from the revealed numbers
+		Arrays.fill(position, -1);
+		size = 0;
+		hidden = 0;
+		
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			int state = store.getStateOrdinal(index);
+			
+			if(isNumber(state)) 						{ addHiddenNeighbours(index); }
+			else if(state == HIDDEN || state == FLAG) 	{ hidden++; }
+		}
+	}
+	
+	/**
+	 * Method that applies the changes of an operation
+	 * @param changes The change set of the operation
+	 */
+	void update(ChangeSet changes)
+	{
+		//A reset (or a set too large to list) needs the whole index
+		if(changes.isReset() || changes.isOverflow())
+		{
+			rebuild();
+			return;
+		}
+		
+		for(int k = 0; k < changes.size(); k++)
+		{
+			int index = changes.getIndex(k);
+			int state = changes.getState(k);
+			
+			if(state == FLAG)
+			{
+				//Hidden to flag
+				addToNeighbours(index, FLAG_ONE - HIDDEN_ONE);
+			}
+			else if(state == HIDDEN)
+			{
+				//Flag to hidden
+				addToNeighbours(index, HIDDEN_ONE - FLAG_ONE);
+			}
+			else
+			{
+				//Hidden to revealed: it leaves the frontier and a number brings in its hidden neighbours
+				addToNeighbours(index, -HIDDEN_ONE);
+				remove(index);
+				hidden--;
+				
+				if(isNumber(state)) { addHiddenNeighbours(index); }
+			}
+		}
+	}
+	
+	/**
+	 * Method that adds a value to the packed counts of the neighbours of a cell
+	 * @param index The linear cell index
+	 * @param delta The value to add
+	 */
+	private void addToNeighbours(int index, int delta)
+	{
+		int count = topology.neighbours(index, near);
+		
+		for(int k = 0; k < count; k++)
+		{
+			counts[near[k]] += delta;
+		}
+	}
+	
+	/**
+	 * Method that adds the hidden (or flagged) neighbours of a number to the frontier
+	 * @param index The linear index of the number
+	 */
+	private void addHiddenNeighbours(int index)
+	{
+		int count = topology.neighbours(index, near);
+		
+		for(int k = 0; k < count; k++)
+		{
+			int neighbour = near[k];
+			int state = store.getStateOrdinal(neighbour);
+			
+			if((state == HIDDEN || state == FLAG) && position[neighbour] == -1)
+			{
+				if(size == members.length) { members = Arrays.copyOf(members, size * 2); }
+				
+				position[neighbour] = size;
+				members[size++] = neighbour;
+			}
+		}
+	}
+	
+	/**
+	 * Method that removes a cell from the frontier (the last member takes its place)
+	 * @param index The linear cell index
+	 */
+	private void remove(int index)
+	{
+		int at = position[index];
+		
+		if(at == -1) { return; }
+		
+		int last = members[--size];
+		members[at] = last;
+		position[last] = at;
+		position[index] = -1;
+	}
+	
+	/**
+	 * @param state The visible state ordinal
+	 * @return If the state is a revealed number
+	 */
+	private static boolean isNumber(int state) { return state >= CELL_1 && state <= CELL_8; }
+	
+	/**
+	 * @param k The member number (from 0 to size - 1)
+	 * @return The linear index of the frontier cell
+	 */
+	public int get(int k) { return members[k]; }
+	
+	/**
+	 * @param index The linear cell index
+	 * @return If the cell is on the frontier
+	 */
+	public boolean contains(int index) { return position[index] != -1; }
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The number of hidden (not flagged) neighbours
+	 */
+	public int getHiddenNear(int index) { return counts[index] & 0x0F; }
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The number of flagged neighbours
+	 */
+	public int getFlagsNear(int index) { return (counts[index] >>> 4) & 0x0F; }
+	
+	/**
+	 * @return The number of frontier cells
+	 */
+	public int size() { return size; }
+	
+	/**
+	 * @return The number of hidden cells of the board, flagged ones included (the interior cells are the ones not on the frontier)
+	 */
+	public int getHiddenCount() { return hidden; }
+}
@@ -0,0 +1,12 @@
+package game.minesweeper.game.board;
+
+/**
+ * Enumerates the different game states. GAME_SUCCESS means that all the bombs are
+ * flagged but some safe cells are still hidden, GAME_WIN and GAME_FAIL end the game
+ * and GAME_STOP is set once the end of the game has been handled.
+ * @author Matteo Pignataro
+ */
+public enum GameState
+{
+	GAME_RUN, GAME_FAIL, GAME_SUCCESS, GAME_WIN, GAME_STOP;
+}
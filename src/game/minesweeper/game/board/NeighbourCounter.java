@@ -0,0 +1,267 @@
+package game.minesweeper.game.board;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * This class assigns to every cell that is not a bomb the number of bombs near it.
+ * The board is split into bands that are counted in parallel: every band only reads
+ * which cells are bombs (including the lines of the near bands) and only writes its own
+ * cells, so the band edges need no synchronization.
+ * The count is a 3x3 box sum over a 0/1 bomb mask. The default kernel works on 8 cells
+ * at once inside a long (SWAR): every line is turned into a padded mask line, the three
+ * near mask lines are added together and then the sum is added to itself shifted by one
+ * and two cells. No byte can overflow into the next one (the maximum is 9) so there are no
+ * bounds checks and no branches per cell. A scalar kernel is kept as fallback.
+ * The torus and hex boards are counted with the neighbour tables of their topology.
+ * @author Matteo Pignataro
+ */
+public final class NeighbourCounter
+{
+	/**
+	 * Cached states array to avoid the values() clone
+	 */
+	private static final CellState STATES[] = CellState.values();
+	
+	/**
+	 * Bomb state ordinal
+	 */
+	private static final int BOMB = CellState.BOMB.ordinal();
+	
+	/**
+	 * View of a byte array as little endian longs (unaligned access allowed)
+	 */
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	/**
+	 * Byte lanes constants
+	 */
+	private static final long ONES 			= 0x0101010101010101L;
+	private static final long LOW_NIBBLES 	= 0x0F0F0F0F0F0F0F0FL;
+	private static final long LOW_SEVEN 	= 0x7F7F7F7F7F7F7F7FL;
+	private static final long HIGH_BITS 	= 0x8080808080808080L;
+	private static final long BOMBS 		= ONES * BOMB;
+	
+	private NeighbourCounter() {}
+	
+	/**
+	 * Method that assigns the numbers of the whole board with the SWAR kernel
+	 * @param store The board store with the bombs placed
+	 */
+	public static void count(BoardStore store) { count(store, true); }
+	
+	/**
+	 * Method that assigns the numbers of the whole board
+	 * @param store The board store with the bombs placed
+	 * @param swar True to use the SWAR kernel, false to use the scalar one
+	 */
+	public static void count(BoardStore store, boolean swar)
+	{
+		if(store.getTopology().getType() != Topology.Type.GRID)
+		{
+			BoardBands.invoke(store, (band, iFrom, iTo) -> countLinesTopology(store, iFrom, iTo));
+		}
+		else if(swar)
+		{
+			BoardBands.invoke(store, (band, iFrom, iTo) -> countLinesSwar(store, iFrom, iTo));
+		}
+		else
+		{
+			BoardBands.invoke(store, (band, iFrom, iTo) -> countLines(store, iFrom, iTo));
+		}
+	}
+	
+	/**
+	 * Scalar kernel that assigns the numbers of the lines [iFrom, iTo)
+	 * @param store The board store with the bombs placed
+	 * @param iFrom The first line
+	 * @param iTo The line after the last one
+	 * @return The number of counted cells
+	 */
+	static long countLines(BoardStore store, int iFrom, int iTo)
+	{
+		int width 	= store.getWidth();
+		int height 	= store.getHeight();
+		
+		for(int i = iFrom; i < iTo; i++)
+		{
+			//Neighbours lines bounds
+			int iMin = i > 0 ? i - 1 : 0;
+			int iMax = i < width - 1 ? i + 1 : i;
+			
+			for(int j = 0; j < height; j++)
+			{
+				int index = i * height + j;
+				
+				//Bombs keep their state
+				if(store.getRealStateOrdinal(index) == BOMB) { continue; }
+				
+				int jMin = j > 0 ? j - 1 : 0;
+				int jMax = j < height - 1 ? j + 1 : j;
+				int count = 0;
+				
+				for(int ni = iMin; ni <= iMax; ni++)
+				{
+					for(int nj = jMin; nj <= jMax; nj++)
+					{
+						if(store.getRealStateOrdinal(ni * height + nj) == BOMB) { count++; }
+					}
+				}
+				
+				//Only if the count differs from 0 i change the state
+				if(count > 0)
+				{
+					store.setRealState(index, STATES[1 + count]);
+				}
+			}
+		}
+		
+		return (long)(iTo - iFrom) * height;
+	}
+	
+	/**
+	 * Kernel that assigns the numbers of the lines [iFrom, iTo) with the neighbour tables of the topology
+	 * @param store The board store with the bombs placed
+	 * @param iFrom The first line
+	 * @param iTo The line after the last one
+	 * @return The number of counted cells
+	 */
+	static long countLinesTopology(BoardStore store, int iFrom, int iTo)
+	{
+		Topology topology = store.getTopology();
+		int near[] = new int[topology.getMaxNeighbours()];
+		int height = store.getHeight();
+		
+		for(int index = iFrom * height; index < iTo * height; index++)
+		{
+			//Bombs keep their state
+			if(store.getRealStateOrdinal(index) == BOMB) { continue; }
+			
+			int count = 0;
+			int neighbours = topology.neighbours(index, near);
+			
+			for(int k = 0; k < neighbours; k++)
+			{
+				if(store.getRealStateOrdinal(near[k]) == BOMB) { count++; }
+			}
+			
+			//Only if the count differs from 0 i change the state
+			if(count > 0)
+			{
+				store.setRealState(index, STATES[1 + count]);
+			}
+		}
+		
+		return (long)(iTo - iFrom) * height;
+	}
+	
+	/**
+	 * SWAR kernel that assigns the numbers of the lines [iFrom, iTo)
+	 * @param store The board store with the bombs placed
+	 * @param iFrom The first line
+	 * @param iTo The line after the last one
+	 * @return The number of counted cells
+	 */
+	static long countLinesSwar(BoardStore store, int iFrom, int iTo)
+	{
+		int width 		= store.getWidth();
+		int height 		= store.getHeight();
+		byte cells[] 	= store.getCells();
+		
+		//Padded mask lines: the cell j is at j + 1, plus 8 bytes of slack for the last long access
+		int padded 		= height + 2;
+		byte previous[] = new byte[padded + 8];
+		byte current[] 	= new byte[padded + 8];
+		byte next[] 	= new byte[padded + 8];
+		byte sum[] 		= new byte[padded + 8];
+		
+		//The line before the band (if present) and the first line of the band
+		if(iFrom > 0)
+		{
+			maskLine(cells, iFrom - 1, height, previous);
+		}
+		maskLine(cells, iFrom, height, current);
+		
+		for(int i = iFrom; i < iTo; i++)
+		{
+			//The line after (zeros outside the board)
+			if(i + 1 < width)
+			{
+				maskLine(cells, i + 1, height, next);
+			}
+			else
+			{
+				Arrays.fill(next, (byte) 0);
+			}
+			
+			//Vertical sum of the three lines, every byte is at most 3
+			for(int k = 0; k < padded; k += 8)
+			{
+				LONGS.set(sum, k, (long) LONGS.get(previous, k) + (long) LONGS.get(current, k) + (long) LONGS.get(next, k));
+			}
+			
+			//Horizontal sum and new real states, 8 cells at once
+			int base = i * height;
+			int j = 0;
+			
+			for(; j + 8 <= height; j += 8)
+			{
+				long count 	= (long) LONGS.get(sum, j) + (long) LONGS.get(sum, j + 1) + (long) LONGS.get(sum, j + 2);
+				//0xFF on the bomb lanes, 0 elsewhere
+				long bombs 	= (long) LONGS.get(current, j + 1) * 0xFF;
+				//A cell with count c is the state 1 + c (CELL_NONE when c is 0)
+				long real 	= ((count + ONES) & ~bombs) | (BOMBS & bombs);
+				
+				LONGS.set(cells, base + j, ((long) LONGS.get(cells, base + j) & LOW_NIBBLES) | (real << 4));
+			}
+			
+			//Remaining cells of the line
+			for(; j < height; j++)
+			{
+				int real = current[j + 1] != 0 ? BOMB : 1 + sum[j] + sum[j + 1] + sum[j + 2];
+				cells[base + j] = (byte)((cells[base + j] & 0x0F) | (real << 4));
+			}
+			
+			//Shift the mask lines
+			byte swap[] = previous;
+			previous 	= current;
+			current 	= next;
+			next 		= swap;
+		}
+		
+		return (long)(iTo - iFrom) * height;
+	}
+	
+	/**
+	 * Method that writes the padded 0/1 bomb mask of a line
+	 * @param cells The packed cells
+	 * @param i The line
+	 * @param height The board height
+	 * @param line The padded mask line (the cell j goes at j + 1)
+	 */
+	private static void maskLine(byte cells[], int i, int height, byte line[])
+	{
+		int base = i * height;
+		int j = 0;
+		
+		for(; j + 8 <= height; j += 8)
+		{
+			//Real state ordinals of 8 cells xor the bomb one: the bomb lanes become 0
+			long lanes = (((long) LONGS.get(cells, base + j) >>> 4) & LOW_NIBBLES) ^ BOMBS;
+			//High bit set on every lane that is not 0 (no carry, every lane is at most 0x0F)
+			long notZero = ((lanes + LOW_SEVEN) | lanes) & HIGH_BITS;
+			
+			LONGS.set(line, j + 1, (~notZero & HIGH_BITS) >>> 7);
+		}
+		
+		//Remaining cells of the line
+		for(; j < height; j++)
+		{
+			line[j + 1] = (byte)(((cells[base + j] & 0xF0) >>> 4) == BOMB ? 1 : 0);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package game.minesweeper.game.board;
+
+import java.util.Arrays;
+
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * This class reveals the cells of a board store. Blank regions are opened
+ * with an explicit work stack of cell indices, so there is no recursion and
+ * no allocation once the stack has grown to the largest region opened.
+ * The neighbours of a cell come from the topology of the store.
+ * @author Matteo Pignataro
+ */
+public class RevealEngine
+{
+	/**
+	 * Value returned when the revealed cell is a bomb
+	 */
+	public static final int EXPLODED = -1;
+	
+	/**
+	 * States ordinals used in the hot loop
+	 */
+	private static final int HIDDEN = CellState.CELL_HIDDEN.ordinal();
+	private static final int NONE 	= CellState.CELL_NONE.ordinal();
+	private static final int BOMB 	= CellState.BOMB.ordinal();
+	
+	/**
+	 * The board store
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * Neighbourhood of the cells and the buffer of the neighbours of a cell
+	 */
+	private final Topology topology;
+	private final int near[];
+	
+	/**
+	 * Work stack of cell indices
+	 */
+	private int stack[];
+	
+	/**
+	 * Work stack top index
+	 */
+	private int size;
+	
+	/**
+	 * Constructor
+	 * @param store The board store where the cells are revealed
+	 */
+	public RevealEngine(BoardStore store)
+	{
+		this.store = store;
+		topology = store.getTopology();
+		near = new int[topology.getMaxNeighbours()];
+		
+		//Start with a small stack, it grows with the opened regions
+		stack = new int[64];
+		size = 0;
+	}
+	
+	/**
+	 * Method to reveal a cell. If the cell is blank all the connected blank
+	 * region and its numbered border are revealed too.
+	 * Flagged and already revealed cells are not touched.
+	 * @param index The linear cell index
+	 * @return The number of revealed cells or EXPLODED if the cell was a bomb
+	 */
+	public int reveal(int index)
+	{
+		//Only hidden cells can be revealed
+		if(store.getStateOrdinal(index) != HIDDEN) { return 0; }
+		
+		//If i discover a bomb i set it to red bomb
+		if(store.getRealStateOrdinal(index) == BOMB)
+		{
+			store.setState(index, CellState.BOMB_RED);
+			return EXPLODED;
+		}
+		
+		//The cells are revealed when pushed, so every cell is pushed at most once
+		uncover(index);
+		
+		return flood();
+	}
+	
+	/**
+	 * Method to reveal all the hidden neighbours of a cell (the chord): they are all pushed
+	 * into the work stack and opened by a single flood. The bombs among them become red bombs.
+	 * Flagged and already revealed cells are not touched.
+	 * @param index The linear index of the chorded cell
+	 * @return The number of revealed cells or EXPLODED if a neighbour was a bomb
+	 */
+	public int revealAround(int index)
+	{
+		boolean exploded = false;
+		int count = topology.neighbours(index, near);
+		
+		for(int k = 0; k < count; k++)
+		{
+			int neighbour = near[k];
+			
+			if(store.getStateOrdinal(neighbour) != HIDDEN) { continue; }
+			
+			if(store.getRealStateOrdinal(neighbour) == BOMB)
+			{
+				store.setState(neighbour, CellState.BOMB_RED);
+				exploded = true;
+			}
+			else
+			{
+				uncover(neighbour);
+			}
+		}
+		
+		int revealed = flood();
+		
+		return exploded ? EXPLODED : revealed;
+	}
+	
+	/**
+	 * Method that empties the work stack: every popped blank cell pushes its hidden neighbours
+	 * @return The number of popped (revealed) cells
+	 */
+	private int flood()
+	{
+		int revealed = 0;
+		
+		while(size > 0)
+		{
+			int current = stack[--size];
+			revealed++;
+			
+			//Only the blank cells propagate to the neighbours
+			if(store.getRealStateOrdinal(current) != NONE) { continue; }
+			
+			int count = topology.neighbours(current, near);
+			
+			for(int k = 0; k < count; k++)
+			{
+				//A blank cell has no bombs near it, so every hidden neighbour is safe
+				if(store.getStateOrdinal(near[k]) == HIDDEN)
+				{
+					uncover(near[k]);
+				}
+			}
+		}
+		
+		return revealed;
+	}
+	
+	/**
+	 * Method that swaps the visible state with the real one and pushes the cell
+	 * @param index The linear cell index
+	 */
+	private void uncover(int index)
+	{
+		//Swap the states
+		store.setState(index, store.getRealState(index));
+		
+		//Grow the stack if needed
+		if(size == stack.length)
+		{
+			stack = Arrays.copyOf(stack, Math.min(stack.length * 2, Math.max(store.getSize(), 64)));
+		}
+		
+		stack[size++] = index;
+	}
+}
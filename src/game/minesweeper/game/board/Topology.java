@@ -0,0 +1,249 @@
+package game.minesweeper.game.board;
+
+/**
+ * Neighbourhood of the cells of a board. The cells keep the i * height + j layout, so the
+ * neighbours of an interior cell (not on the border lines) are the cell index plus a fixed
+ * table of offsets, precomputed once per board: the hot loops of the generator, of the reveal
+ * engine, of the chord and of the counters add the offsets without any bounds check.
+ * Only the cells on the border lines take the slower path that clamps or wraps the coordinates.
+ * Three topologies are available:
+ * - GRID: the classic 8 neighbours, clamped at the borders
+ * - TORUS: 8 neighbours, the borders wrap around
+ * - HEX: 6 neighbours, the odd columns are shifted down by half a cell
+ * @author Matteo Pignataro
+ */
+public abstract class Topology
+{
+	/**
+	 * Enumerates the available topologies
+	 * @author Matteo Pignataro
+	 */
+	public static enum Type
+	{
+		GRID, TORUS, HEX;
+	}
+	
+	/**
+	 * Board dimensions
+	 */
+	protected final int width;
+	protected final int height;
+	
+	/**
+	 * Offsets of the interior neighbours, one table per column parity
+	 */
+	private final int offsets[][];
+	
+	/**
+	 * Constructor
+	 * @param width The board width
+	 * @param height The board height
+	 * @param even The interior offsets (di, dj) of the even columns
+	 * @param odd The interior offsets (di, dj) of the odd columns
+	 */
+	protected Topology(int width, int height, int even[][], int odd[][])
+	{
+		this.width 	= width;
+		this.height = height;
+		
+		offsets = new int[][] {linear(even), linear(odd)};
+	}
+	
+	/**
+	 * Method that builds the topology of a board
+	 * @param type The topology type (null means GRID)
+	 * @param width The board width
+	 * @param height The board height
+	 * @return The topology
+	 */
+	public static Topology create(Type type, int width, int height)
+	{
+		if(type == Type.TORUS) 	{ return new Torus(width, height); }
+		if(type == Type.HEX) 	{ return new Hex(width, height); }
+		
+		return new Grid(width, height);
+	}
+	
+	/**
+	 * @param pairs The offsets (di, dj)
+	 * @return The linear index offsets
+	 */
+	private int[] linear(int pairs[][])
+	{
+		int result[] = new int[pairs.length];
+		
+		for(int k = 0; k < pairs.length; k++)
+		{
+			result[k] = pairs[k][0] * height + pairs[k][1];
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Method that writes the neighbours of a cell
+	 * @param index The linear cell index
+	 * @param out The array where the neighbours are written (at least getMaxNeighbours long)
+	 * @return The number of neighbours
+	 */
+	public int neighbours(int index, int out[])
+	{
+		int i = index / height;
+		int j = index - i * height;
+		
+		//Border lines
+		if(i == 0 || j == 0 || i == width - 1 || j == height - 1) { return borderNeighbours(i, j, out); }
+		
+		int table[] = offsets[i & 1];
+		for(int k = 0; k < table.length; k++)
+		{
+			out[k] = index + table[k];
+		}
+		
+		return table.length;
+	}
+	
+	/**
+	 * Method that writes the neighbours of a cell on a border line
+	 * @param i The column
+	 * @param j The row
+	 * @param out The array where the neighbours are written
+	 * @return The number of neighbours
+	 */
+	protected abstract int borderNeighbours(int i, int j, int out[]);
+	
+	/**
+	 * @return The vertical shift of the odd columns in cells (used by the renderer and the mouse)
+	 */
+	public abstract float getColumnShift();
+	
+	/**
+	 * @return The topology type
+	 */
+	public abstract Type getType();
+	
+	/**
+	 * @return The maximum number of neighbours of a cell
+	 */
+	public int getMaxNeighbours() { return offsets[0].length; }
+	
+	/**
+	 * The 8 neighbours offsets of the square topologies
+	 */
+	private static final int SQUARE[][] = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+	
+	/**
+	 * Classic grid: the neighbours outside the board are dropped
+	 * @author Matteo Pignataro
+	 */
+	private static class Grid extends Topology
+	{
+		Grid(int width, int height) { super(width, height, SQUARE, SQUARE); }
+		
+		@Override
+		protected int borderNeighbours(int i, int j, int out[])
+		{
+			int count = 0;
+			
+			for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, width - 1); ni++)
+			{
+				for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+				{
+					if(ni != i || nj != j) { out[count++] = ni * height + nj; }
+				}
+			}
+			
+			return count;
+		}
+		
+		@Override
+		public float getColumnShift() { return 0; }
+		
+		@Override
+		public Type getType() { return Type.GRID; }
+	}
+	
+	/**
+	 * Torus: the neighbours outside the board wrap to the opposite border
+	 * (on boards thinner than 3 cells the repeated neighbours are dropped)
+	 * @author Matteo Pignataro
+	 */
+	private static class Torus extends Topology
+	{
+		Torus(int width, int height) { super(width, height, SQUARE, SQUARE); }
+		
+		@Override
+		protected int borderNeighbours(int i, int j, int out[])
+		{
+			int count = 0;
+			int index = i * height + j;
+			
+			for(int k = 0; k < SQUARE.length; k++)
+			{
+				int ni = Math.floorMod(i + SQUARE[k][0], width);
+				int nj = Math.floorMod(j + SQUARE[k][1], height);
+				int neighbour = ni * height + nj;
+				
+				if(neighbour != index && !contains(out, count, neighbour)) { out[count++] = neighbour; }
+			}
+			
+			return count;
+		}
+		
+		@Override
+		public float getColumnShift() { return 0; }
+		
+		@Override
+		public Type getType() { return Type.TORUS; }
+	}
+	
+	/**
+	 * Hexagonal board in offset columns: the odd columns are shifted down by half a cell,
+	 * so the side neighbours of an even column are on the rows j - 1 and j and the ones
+	 * of an odd column on the rows j and j + 1
+	 * @author Matteo Pignataro
+	 */
+	private static class Hex extends Topology
+	{
+		private static final int EVEN[][] 	= {{0, -1}, {0, 1}, {-1, -1}, {-1, 0}, {1, -1}, {1, 0}};
+		private static final int ODD[][] 	= {{0, -1}, {0, 1}, {-1, 0}, {-1, 1}, {1, 0}, {1, 1}};
+		
+		Hex(int width, int height) { super(width, height, EVEN, ODD); }
+		
+		@Override
+		protected int borderNeighbours(int i, int j, int out[])
+		{
+			int pairs[][] = (i & 1) == 0 ? EVEN : ODD;
+			int count = 0;
+			
+			for(int k = 0; k < pairs.length; k++)
+			{
+				int ni = i + pairs[k][0];
+				int nj = j + pairs[k][1];
+				
+				if(ni >= 0 && nj >= 0 && ni < width && nj < height) { out[count++] = ni * height + nj; }
+			}
+			
+			return count;
+		}
+		
+		@Override
+		public float getColumnShift() { return 0.5f; }
+		
+		@Override
+		public Type getType() { return Type.HEX; }
+	}
+	
+	/**
+	 * @return If the first count values of the array contain the value
+	 */
+	private static boolean contains(int values[], int count, int value)
+	{
+		for(int k = 0; k < count; k++)
+		{
+			if(values[k] == value) { return true; }
+		}
+		
+		return false;
+	}
+}
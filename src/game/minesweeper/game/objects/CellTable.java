@@ -1,25 +1,23 @@
 package game.minesweeper.game.objects;
 
-import javax.swing.JOptionPane;
-
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.BoardLayout;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.FrontierIndex;
+import game.minesweeper.game.board.GameState;
+import game.minesweeper.game.board.Topology;
+import game.minesweeper.game.solver.NoGuessGenerator;
 import game.minesweeper.window.listener.MouseEvent;
 import game.minesweeper.window.listener.MouseEvent.MouseEventType;
 
 /**
- * This class represents the cell matrix in the game
+ * This class represents the cell matrix in the game. It places the board on the
+ * window and translates the mouse events into moves of the headless board engine.
  * @author Matteo Pignataro
  */
 public class CellTable 
 {
-	/**
-	 * Enumerates the different game states
-	 * @author Matteo Pignataro
-	 */
-	public static enum GameState
-	{
-		GAME_RUN, GAME_FAIL, GAME_SUCCESS, GAME_STOP;
-	}
-	
 	/**
 	 * X position
 	 */
@@ -31,39 +29,54 @@ public class CellTable
 	private int y;
 	
 	/**
-	 * Game state
+	 * Cell size
 	 */
-	private GameState state;
+	private int cellSize;
 	
 	/**
-	 * Game difficulty (probability that the single cell is not a mine)
+	 * Game engine that applies the rules
 	 */
-	private final float difficulty;
+	private BoardEngine engine;
 	
 	/**
-	 * Number of actual bombs
+	 * Optional generator of boards solvable without guessing
 	 */
-	private int bombNumber;
+	private NoGuessGenerator noGuess;
 	
 	/**
-	 * Number of actual discovered bombs
+	 * If the current no guess board could not be verified (it can need a guess)
 	 */
-	private int bombDiscovered;
+	private boolean unverified;
 	
 	/**
-	 * Number of placed flags
+	 * If the table waits for a layout of the no guess generator (the board can't be played)
 	 */
-	private int flags;
+	private boolean waiting;
 	
 	/**
-	 * Cell size
+	 * Constructor
+	 * @param x The x position of the top left corner
+	 * @param y The y position of the top left corner
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param size The size in pixel of every single cell
+	 * @param difficulty The probability that the single cell is not a mine
 	 */
-	private int cellSize;
+	public CellTable(int x, int y, int width, int height, int size, float difficulty)
+	{
+		this(x, y, width, height, size, BoardGenerator.withDensity(1 - (difficulty > 0 && difficulty < 1 ? difficulty : 0.8f), System.nanoTime()));
+	}
 	
 	/**
-	 * Cell matrix
+	 * Constructor
+	 * @param x The x position of the top left corner
+	 * @param y The y position of the top left corner
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param size The size in pixel of every single cell
+	 * @param generator The generator that places the bombs
 	 */
-	private Cell[][] table;
+	public CellTable(int x, int y, int width, int height, int size, BoardGenerator generator) { this(x, y, width, height, size, generator, false); }
 	
 	/**
 	 * Constructor
@@ -72,410 +85,221 @@ public class CellTable
 	 * @param width The width in cells
 	 * @param height The height in cells
 	 * @param size The size in pixel of every single cell
+	 * @param generator The generator that places the bombs
+	 * @param noGuess True to play only boards solvable without guessing (their start cell is opened)
 	 */
-	public CellTable(int x, int y, int width, int height, int size, float difficulty)
+	public CellTable(int x, int y, int width, int height, int size, BoardGenerator generator, boolean noGuess)
+	{
+		this(x, y, width, height, size, generator, noGuess, Topology.Type.GRID);
+	}
+	
+	/**
+	 * Constructor
+	 * @param x The x position of the top left corner
+	 * @param y The y position of the top left corner
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param size The size in pixel of every single cell
+	 * @param generator The generator that places the bombs
+	 * @param noGuess True to play only boards solvable without guessing (only on the classic grid)
+	 * @param type The topology of the board
+	 */
+	public CellTable(int x, int y, int width, int height, int size, BoardGenerator generator, boolean noGuess, Topology.Type type)
 	{
 		//Assign all the variables
 		this.x = x;
 		this.y = y;
-		this.cellSize 	= size;
-		this.difficulty = difficulty > 0 && difficulty < 1 ? difficulty : 0.8f;
-		
-		//Init all the counters to 0
-		bombNumber		= 0;
-		bombDiscovered 	= 0;
-		flags 			= 0;
-		
-		//Set the game status to run
-		state = GameState.GAME_RUN;
+		this.cellSize = size;
 		
-		//Instance the matrix (in case of negative or 0 width or height i use the value 10)
-		table = new Cell[width > 0 ? width : 10][height > 0 ? height : 10];
+		//Instance the engine (in case of negative or 0 width or height it uses the value 10)
+		engine = new BoardEngine(width, height, generator, type);
 		
-		//Randomly assign the bombs
-		for(int i = 0; i < table.length; i++)
+		//The no guess boards come from the pool of the configuration (the solvers know only the grid)
+		if(noGuess && engine.getStore().getTopology().getType() == Topology.Type.GRID)
 		{
-			for(int j = 0; j < table[0].length; j++)
-			{
-				//Percentage of bombs
-				if(Math.random() > this.difficulty)
-				{
-					table[i][j] = new Cell(x + i * cellSize, y + j * cellSize, cellSize, cellSize, CellState.BOMB);
-					//Increment the bombNumber
-					bombNumber++;
-				}
-				else 
-				{
-					//Otherwise it is a void cell for now
-					table[i][j] = new Cell(x + i * cellSize, y + j * cellSize, cellSize, cellSize, CellState.CELL_NONE);
-				}
-			}
+			this.noGuess = NoGuessGenerator.forConfiguration(engine.getWidth(), engine.getHeight(), generator);
+			waitLayout();
 		}
-		
-		//Init properly the table
-		initTable();
 	}
 	
 	/**
-	 * Method to count the bombs and assign the numbers in the table
-	 * @param size The cells size
+	 * Method to reset the table with new configuration
 	 */
-	private void initTable()
-	{	
-		//After all the bombs have been assigned i can calculate the numbers
-		for(int i = 0; i < table.length; i++)
+	public void resetTable()
+	{
+		if(noGuess != null)
 		{
-			for(int j = 0; j < table[0].length; j++)
-			{
-				//If this cell is not a bomb
-				if(table[i][j].getRealState() != CellState.BOMB)
-				{
-					//Count how many bombs are near this cell
-					int count = 0;
-					
-					//Top left cell
-					if(i - 1 >= 0 && j - 1 >= 0 && table[i - 1][j - 1].getRealState() == CellState.BOMB) count++;
-					//Middle left cell
-					if(i - 1 >= 0 && table[i - 1][j].getRealState() == CellState.BOMB) count++;
-					//Bottom left cell
-					if(i - 1 >= 0 && j + 1 < table[0].length && table[i - 1][j + 1].getRealState() == CellState.BOMB) count++;
-					//Top middle cell
-					if(j - 1 >= 0 && table[i][j - 1].getRealState() == CellState.BOMB) count++;
-					//Top right cell
-					if(i + 1 < table.length && j - 1 >= 0 && table[i + 1][j - 1].getRealState() == CellState.BOMB) count++;
-					//Middle right cell
-					if(i + 1 < table.length && table[i + 1][j].getRealState() == CellState.BOMB) count++;
-					//Bottom right cell
-					if(i + 1 < table.length && j + 1 < table[0].length && table[i + 1][j + 1].getRealState() == CellState.BOMB) count++;
-					//Bottom middle cell
-					if(j + 1 < table[0].length && table[i][j + 1].getRealState() == CellState.BOMB) count++;
-					
-					//Only if the count differs from 0 i change the texture
-					if(count > 0)
-					{
-						table[i][j].setRealState(CellState.values()[1 + count]);
-					}
-				}
-			}
+			//A verified board with its start cell opened, as soon as the generator has one
+			waitLayout();
 		}
-		
-		//Automatic first move to avoid bombs
-		for(int i = table.length / 3; i < table.length; i++)
+		else
 		{
-			for(int j = 0; j < table[0].length; j++)
-			{
-				if(table[i][j].getRealState() == CellState.CELL_NONE)
-				{
-					//I found the cell
-					handleMouseEvent(new MouseEvent(cellSize * i + cellSize / 2, cellSize * j + 3 * cellSize + cellSize / 2, MouseEventType.LEFT_CLICK));
-					return;
-				}
-			}
+			//The new bombs are placed at the first click
+			engine.reset();
 		}
 	}
 	
 	/**
-	 * Method to reset the table with new configuration
+	 * Method that hides and stops the board until the no guess generator has a layout ready
 	 */
-	public void resetTable()
+	private void waitLayout()
 	{
-		//Reset all the states
-		bombNumber		= 0;
-		bombDiscovered 	= 0;
-		flags 			= 0;
-		
-		//Set the game status to run
-		state = GameState.GAME_RUN;
-		
-		//I select randomly the bomb pattern
-		for(int i = 0; i < table.length; i++)
-		{
-			for(int j = 0; j < table[0].length; j++)
-			{
-				//Percentage of bombs
-				if(Math.random() > difficulty)
-				{
-					table[i][j].setRealState(CellState.BOMB);
-					table[i][j].setState(CellState.CELL_HIDDEN);
-					//I count the bomb
-					bombNumber++;
-				}
-				else 
-				{
-					//Otherwise it is a void cell for now
-					table[i][j].setRealState(CellState.CELL_NONE);
-					table[i][j].setState(CellState.CELL_HIDDEN);
-				}
-			}
-		}
-		
-		//After i assign the bombs i can re-init the table
-		initTable();
+		engine.reset();
+		engine.stop();
+		waiting = true;
 	}
 	
 	/**
-	 * It handles an event (after checking that it differs from null and is a left click).
-	 * @param event Mouse event that determines what cell has been clicked
+	 * Method that starts a board of the no guess generator
+	 * @param layout The layout with its start cell
 	 */
-	public void handleMouseEvent(MouseEvent event)
+	private void start(BoardLayout layout)
 	{
-		//If the game is in stop mode i do nothing
-		if(state == GameState.GAME_STOP) { return; }
+		engine.start(layout);
+		waiting = false;
 		
-		//If the game is in the success mode i check if all the cells are not hidden
-		if(state == GameState.GAME_SUCCESS)
+		//After too many candidates the generator gives up and returns a board that needs guessing
+		unverified = !layout.isVerified();
+	}
+	
+	/**
+	 * Method called once per game loop, after all the events have been handled,
+	 * to advance the game state
+	 * @return If a waiting no guess board has just started
+	 */
+	public boolean update()
+	{
+		//The waiting board starts as soon as the generator has a layout (the game loop never waits for it)
+		if(waiting)
 		{
-			//Set the flag to true
-			boolean win = true;
-			
-			for(int i = 0; i < table.length; i++)
-			{
-				for(int j = 0; j < table[0].length; j++)
-				{
-					//If i find an hidden cell i cannot say that the player won
-					if(table[i][j].getState() == CellState.CELL_HIDDEN)
-					{
-						win = false;
-						break;
-					}
-				}
-			}
+			BoardLayout layout = noGuess.poll();
+			if(layout == null) { return false; }
 			
-			//If no hidden cells are found i message the player that he won
-			if(win)
-			{
-				JOptionPane.showMessageDialog(null, "You won the game!", "You won!", JOptionPane.INFORMATION_MESSAGE);
-				//Set the game to stop
-				state = GameState.GAME_STOP;
-			}
+			start(layout);
+			return true;
 		}
 		
-		//If the state is fail i communicate the result and stop the game
-		if(state == GameState.GAME_FAIL)
+		//If the game is over (the result has already been communicated) i stop it
+		if(engine.getState() == GameState.GAME_FAIL || engine.getState() == GameState.GAME_WIN)
 		{
-			//JOptionPane.showMessageDialog(null, "You lost the game..", "You lost", JOptionPane.ERROR_MESSAGE);
 			//Set the state to stop
-			state = GameState.GAME_STOP;
+			engine.stop();
 		}
 		
+		return false;
+	}
+	
+	/**
+	 * It handles an event (after checking that it differs from null and is a click).
+	 * @param event Mouse event that determines what cell has been clicked
+	 */
+	public void handleMouseEvent(MouseEvent event)
+	{
+		//If the game is over i do nothing
+		if(!engine.isPlaying()) { return; }
+		
 		//If the event is null or if the event is different from the clicks
 		if(event == null || (event.getEventType() != MouseEventType.RIGHT_CLICK &&
 							 event.getEventType() != MouseEventType.LEFT_CLICK  &&
 							 event.getEventType() != MouseEventType.CENTER_CLICK)) { return; }
 		
-		//Check if the event is about one of the cells
-		for(int i = 0; i < table.length; i++)
+		//Find the cell under the mouse in constant time
+		int index = getCellIndex(event.getPosX(), event.getPosY());
+		
+		//If the event is not about one of the cells i do nothing
+		if(index == -1) { return; }
+		
+		BoardStore store = engine.getStore();
+		
+		//Cell coordinates
+		int i = index / store.getHeight();
+		int j = index % store.getHeight();
+		
+		//Check if the cell has not already been discovered
+		if(store.getState(index) == CellState.CELL_HIDDEN || store.getState(index) == CellState.FLAG)
 		{
-			for(int j = 0; j < table[0].length; j++)
+			//Center/right clicks place or remove the flag, left clicks reveal
+			if(event.getEventType() != MouseEventType.LEFT_CLICK)
 			{
-				//Check if the mouse position is inside the cell and if the cell has not already been discovered
-				if(table[i][j].isInside((int)event.getPosX(), (int)event.getPosY()) && (table[i][j].getState() == CellState.CELL_HIDDEN
-																						|| table[i][j].getState() == CellState.FLAG))
-				{
-					//I check if it is a center/right clic
-					if(event.getEventType() != MouseEventType.LEFT_CLICK)
-					{
-						//I place or remove the flag
-						if(table[i][j].getState() == CellState.FLAG)
-						{
-							//If it is a flag i remove it
-							table[i][j].setState(CellState.CELL_HIDDEN);
-							//Decrement the flags counter
-							flags--;
-							//Decrement the discovered bombs if it is a bomb
-							bombDiscovered -= table[i][j].getRealState() == CellState.BOMB ? 1 : 0;
-							
-							//If the state was on success and i left behind a bomb i put it on run
-							if(bombDiscovered < bombNumber)
-							{
-								state = GameState.GAME_RUN;
-							}
-						}
-						else
-						{
-							//I put a flag
-							table[i][j].setState(CellState.FLAG);
-							//Increment the flags counter
-							flags++;
-							//If it is a bomb i increment also the discovered counter
-							bombDiscovered += table[i][j].getRealState() == CellState.BOMB ? 1 : 0;
-							
-							//If the discovered bombs are the same number as the bombs i put the game state in success
-							if(bombDiscovered == bombNumber)
-							{
-								state = GameState.GAME_SUCCESS;
-							}
-						}
-						//Then i terminate
-						return;
-					}
-					
-					//If this is a blank cell i swap the state with the real state and i call an event for all
-					//the nearest cells. It needs to not be a flag
-					if(table[i][j].getRealState() == CellState.CELL_NONE && table[i][j].getState() != CellState.FLAG)
-					{
-						//Swap the states
-						table[i][j].setState(table[i][j].getRealState());
-						
-						//Generate the new events and call this method recursively
-						//Top left corner
-						handleMouseEvent(new MouseEvent(event.getPosX() - cellSize, 
-														event.getPosY() - cellSize,
-														MouseEventType.LEFT_CLICK));
-						
-						//Top middle
-						handleMouseEvent(new MouseEvent(event.getPosX(), 
-														event.getPosY() - cellSize,
-														MouseEventType.LEFT_CLICK));
-						
-						//Top right corner
-						handleMouseEvent(new MouseEvent(event.getPosX() + cellSize, 
-														event.getPosY() - cellSize,
-														MouseEventType.LEFT_CLICK));
-						
-						//Middle left
-						handleMouseEvent(new MouseEvent(event.getPosX() - cellSize, 
-														event.getPosY(),
-														MouseEventType.LEFT_CLICK));
-						
-						//Bottom left corner
-						handleMouseEvent(new MouseEvent(event.getPosX() - cellSize, 
-														event.getPosY() + cellSize,
-														MouseEventType.LEFT_CLICK));
-						
-						//Bottom middle
-						handleMouseEvent(new MouseEvent(event.getPosX(), 
-														event.getPosY() + cellSize,
-														MouseEventType.LEFT_CLICK));
-						
-						//Bottom right
-						handleMouseEvent(new MouseEvent(event.getPosX() + cellSize, 
-														event.getPosY() + cellSize,
-														MouseEventType.LEFT_CLICK));
-						
-						//Middle right
-						handleMouseEvent(new MouseEvent(event.getPosX() + cellSize, 
-														event.getPosY(),
-														MouseEventType.LEFT_CLICK));
-					}
-					else if(table[i][j].getState() != CellState.FLAG)
-					{
-						//If i discover a bomb
-						if(table[i][j].getRealState() == CellState.BOMB)
-						{
-							//Set the state to red bomb
-							table[i][j].setState(CellState.BOMB_RED);
-							
-							//Set the game state to fail
-							state = GameState.GAME_FAIL;
-						}
-						else
-						{
-							//Swap the states
-							table[i][j].setState(table[i][j].getRealState());
-						}
-					}
-				}
-				else if(table[i][j].isInside((int)event.getPosX(), (int)event.getPosY()) && table[i][j].getRealState() != CellState.BOMB &&
-																							table[i][j].getRealState() != CellState.CELL_NONE)
-				{
-					//If the cell has already been discovered and is not a bomb
-					//If the flags near it are the same number or above the real state i can discover all
-					//the near hidden cells
-					//Count how many flags are near this cell
-					int count = 0;
-					
-					//Top left cell
-					if(i - 1 >= 0 && j - 1 >= 0 && table[i - 1][j - 1].getState() == CellState.FLAG) count++;
-					//Middle left cell
-					if(i - 1 >= 0 && table[i - 1][j].getState() == CellState.FLAG) count++;
-					//Bottom left cell
-					if(i - 1 >= 0 && j + 1 < table[0].length && table[i - 1][j + 1].getState() == CellState.FLAG) count++;
-					//Top middle cell
-					if(j - 1 >= 0 && table[i][j - 1].getState() == CellState.FLAG) count++;
-					//Top right cell
-					if(i + 1 < table.length && j - 1 >= 0 && table[i + 1][j - 1].getState() == CellState.FLAG) count++;
-					//Middle right cell
-					if(i + 1 < table.length && table[i + 1][j].getState() == CellState.FLAG) count++;
-					//Bottom right cell
-					if(i + 1 < table.length && j + 1 < table[0].length && table[i + 1][j + 1].getState() == CellState.FLAG) count++;
-					//Bottom middle cell
-					if(j + 1 < table[0].length && table[i][j + 1].getState() == CellState.FLAG) count++;
-					
-					//If the counted flags are more than the reported number i discover all the near ones
-					if(count < table[i][j].getState().NUMBER)
-					{
-						return;
-					}
-					
-					//Top left cell
-					if(i - 1 >= 0 && j - 1 >= 0 && table[i - 1][j - 1].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX() - cellSize, 
-														event.getPosY() - cellSize,
-														MouseEventType.LEFT_CLICK));
-					//Middle left cell
-					if(i - 1 >= 0 && table[i - 1][j].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX() - cellSize, 
-														event.getPosY(),
-														MouseEventType.LEFT_CLICK));
-					//Bottom left cell
-					if(i - 1 >= 0 && j + 1 < table[0].length && table[i - 1][j + 1].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX() - cellSize, 
-														event.getPosY() + cellSize,
-														MouseEventType.LEFT_CLICK));
-					//Top middle cell
-					if(j - 1 >= 0 && table[i][j - 1].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX(), 
-														event.getPosY() - cellSize,
-														MouseEventType.LEFT_CLICK));
-					//Top right cell
-					if(i + 1 < table.length && j - 1 >= 0 && table[i + 1][j - 1].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX() + cellSize, 
-														event.getPosY() - cellSize,
-														MouseEventType.LEFT_CLICK));
-					//Middle right cell
-					if(i + 1 < table.length && table[i + 1][j].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX() + cellSize, 
-														event.getPosY(),
-														MouseEventType.LEFT_CLICK));
-					//Bottom right cell
-					if(i + 1 < table.length && j + 1 < table[0].length && table[i + 1][j + 1].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX() + cellSize, 
-														event.getPosY() + cellSize,
-														MouseEventType.LEFT_CLICK));
-					//Bottom middle cell
-					if(j + 1 < table[0].length && table[i][j + 1].getState() == CellState.CELL_HIDDEN)
-						handleMouseEvent(new MouseEvent(event.getPosX(), 
-														event.getPosY() + cellSize,
-														MouseEventType.LEFT_CLICK));
-				}
+				engine.flag(i, j);
 			}
+			else
+			{
+				engine.reveal(i, j);
+			}
+		}
+		else
+		{
+			//If the cell has already been discovered i try to reveal all the near cells
+			engine.chord(i, j);
 		}
 	}
 	
 	/**
-	 * @return A copy of the table
+	 * Method that maps a window position to the cell under it
+	 * @param posX The X position to analyze
+	 * @param posY The Y position to analyze
+	 * @return The linear index of the cell or -1 if the position is not on a cell
 	 */
-	public Cell[][] getTable()
+	public int getCellIndex(double posX, double posY)
 	{
-		//create a copy table
-		Cell[][] copy;
+		//Position relative to the top left corner of the table
+		int offsetX = (int)posX - x;
+		int offsetY = (int)posY - y;
 		
-		//Instance only the first dimension
-		copy = new Cell[table.length][];
-		for(int i = 0; i < copy.length; i++)
-		{
-			copy[i] = table[i].clone();
-		}
+		//On the left of the table
+		if(offsetX <= 0) { return -1; }
+		
+		int i = offsetX / cellSize;
 		
-		//Return the table
-		return copy;
+		//The odd columns are shifted down on hex boards
+		offsetY -= (i & 1) * (int)(engine.getStore().getColumnShift() * cellSize);
+		
+		//Above the table
+		if(offsetY <= 0) { return -1; }
+		
+		//The borders between the cells don't belong to any cell
+		if(offsetX % cellSize == 0 || offsetY % cellSize == 0) { return -1; }
+		
+		int j = offsetY / cellSize;
+		
+		//Below or on the right of the table
+		if(!engine.isInside(i, j)) { return -1; }
+		
+		return engine.getStore().index(i, j);
 	}
 	
+	/**
+	 * @return If no guess boards were requested but the current one could not be verified
+	 */
+	public boolean needsGuessing() { return noGuess != null && unverified; }
+	
+	/**
+	 * @return If the table waits for a layout of the no guess generator
+	 */
+	public boolean isWaiting() { return waiting; }
+	
+	/**
+	 * @return The primitive board store
+	 */
+	public BoardStore getStore() { return engine.getStore(); }
+	
+	/**
+	 * @return The headless game engine
+	 */
+	public BoardEngine getEngine() { return engine; }
+	
+	/**
+	 * @return The frontier index maintained by the engine
+	 */
+	public FrontierIndex getFrontier() { return engine.getFrontier(); }
+	
 	//Simple getters
 	public int getPosX() { return x; }
 	public int getPosY() { return y; }
-	public GameState getGameState() { return state; }
-	public int getBombsNumber() { return bombNumber; }
-	public int getFlagsNumber() { return flags; }
+	public GameState getGameState() { return engine.getState(); }
+	public int getBombsNumber() { return engine.getBombsNumber(); }
+	public int getFlagsNumber() { return engine.getFlagsNumber(); }
+	public int getWrongFlagsNumber() { return engine.getWrongFlagsNumber(); }
+	public int getHiddenSafeNumber() { return engine.getHiddenSafeNumber(); }
 }
@@ -137,6 +137,17 @@ public class Menu
 		}
 	}
 	
+	/**
+	 * @return The seconds left before the next timer tick
+	 */
+	public double getSecondsToNextTick()
+	{
+		//Milliseconds passed from the last tick
+		long passed = System.currentTimeMillis() - lastTick;
+		
+		return passed >= 1000 ? 0 : (1000 - passed) / 1000.0;
+	}
+	
 	/**
 	 * Method to reset all the numbers indicators
 	 */
@@ -158,6 +158,9 @@ public class NumberDisplay extends DrawableElement
 	 */
 	public void setState(NumberDisplayState state)
 	{
+		//If the number is the same there is nothing to redraw
+		if(this.state == state) { return; }
+		
 		//Set the state
 		this.state = state;
 		//Force update
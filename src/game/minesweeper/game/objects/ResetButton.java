@@ -183,9 +183,7 @@ public class ResetButton extends DrawableElement
 		   !isInside((int)event.getPosX(), (int)event.getPosY()))
 		{
 			//Change texture state
-			state = ResetButtonState.NORMAL;
-			//Force the update
-			updated = true;
+			setState(ResetButtonState.NORMAL);
 			return;
 		}
 		
@@ -194,11 +192,9 @@ public class ResetButton extends DrawableElement
 		   isInside((int)event.getPosX(), (int)event.getPosY()))
 		{
 			//Change texture state
-			state = ResetButtonState.PRESSED;
+			setState(ResetButtonState.PRESSED);
 			//Force the reset state
 			reset = true;
-			//Force the update
-			updated = true;
 			return;
 		}
 		
@@ -208,10 +204,22 @@ public class ResetButton extends DrawableElement
 		   event.getEventType() == MouseEventType.RIGHT_RELEASE)
 		{
 			//Change texture state
-			state = ResetButtonState.NORMAL;
+			setState(ResetButtonState.NORMAL);
+			return;
+		}
+	}
+	
+	/**
+	 * Method to change the texture state. The update is forced only on a real change
+	 * @param state The new state
+	 */
+	private void setState(ResetButtonState state)
+	{
+		if(this.state != state)
+		{
+			this.state = state;
 			//Force the update
 			updated = true;
-			return;
 		}
 	}
 	
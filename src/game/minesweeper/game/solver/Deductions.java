@@ -0,0 +1,93 @@
+package game.minesweeper.game.solver;
+
+import java.util.Arrays;
+
+/**
+ * Primitive lists of the deductions of a solver: the linear indices of the
+ * guaranteed safe cells and of the guaranteed mines.
+ * @author Matteo Pignataro
+ */
+public class Deductions
+{
+	/**
+	 * Safe cells indices
+	 */
+	private int safe[];
+	
+	/**
+	 * Mines indices
+	 */
+	private int mines[];
+	
+	/**
+	 * Lists sizes
+	 */
+	private int safeCount;
+	private int mineCount;
+	
+	/**
+	 * Constructor
+	 */
+	public Deductions()
+	{
+		safe 	= new int[64];
+		mines 	= new int[64];
+		clear();
+	}
+	
+	/**
+	 * Method to empty the lists
+	 */
+	public void clear()
+	{
+		safeCount = 0;
+		mineCount = 0;
+	}
+	
+	/**
+	 * @param index The linear index of a guaranteed safe cell
+	 */
+	public void addSafe(int index)
+	{
+		if(safeCount == safe.length)
+		{
+			safe = Arrays.copyOf(safe, safe.length * 2);
+		}
+		
+		safe[safeCount++] = index;
+	}
+	
+	/**
+	 * @param index The linear index of a guaranteed mine
+	 */
+	public void addMine(int index)
+	{
+		if(mineCount == mines.length)
+		{
+			mines = Arrays.copyOf(mines, mines.length * 2);
+		}
+		
+		mines[mineCount++] = index;
+	}
+	
+	/**
+	 * @return If nothing has been deduced
+	 */
+	public boolean isEmpty() { return safeCount == 0 && mineCount == 0; }
+	
+	/**
+	 * @param k The safe cell number
+	 * @return The linear index of the safe cell
+	 */
+	public int getSafe(int k) { return safe[k]; }
+	
+	/**
+	 * @param k The mine number
+	 * @return The linear index of the mine
+	 */
+	public int getMine(int k) { return mines[k]; }
+	
+	//Simple getters
+	public int getSafeCount() { return safeCount; }
+	public int getMineCount() { return mineCount; }
+}
@@ -0,0 +1,608 @@
+package game.minesweeper.game.solver;
+
+import java.util.Arrays;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.FrontierIndex;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Linear algebra solver. Every revealed number next to the frontier is an equation
+ * (the sum of its hidden neighbours is the number) and the frontier is split into
+ * independent components, so the cost grows with the frontier and not with its square.
+ * The equations of a component are packed rows of long bitsets, one for the +1 and one for
+ * the -1 coefficients, reduced with Gaussian elimination. A subtraction that would create
+ * a coefficient of 2 is skipped, so every row stays a valid combination of the equations.
+ * A row forces its cells when the right side equals its maximum (all the +1 cells mines
+ * and all the -1 cells safe) or its minimum (the opposite).
+ * The solver keeps no deductions between the calls: every call reads the frontier index
+ * of the engine, so its cost follows the frontier and not the board size.
+ * @author Matteo Pignataro
+ */
+public class LinearSolver implements Solver
+{
+	/**
+	 * States ordinals used in the hot loops
+	 */
+	private static final int HIDDEN = CellState.CELL_HIDDEN.ordinal();
+	private static final int FLAG 	= CellState.FLAG.ordinal();
+	private static final int CELL_1 = CellState.CELL_1.ordinal();
+	private static final int CELL_8 = CellState.CELL_8.ordinal();
+	
+	/**
+	 * Deduction values of a variable
+	 */
+	private static final byte UNKNOWN 	= 0;
+	private static final byte SAFE 		= 1;
+	private static final byte MINE 		= 2;
+	
+	/**
+	 * The board store of the engine
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * The frontier index of the engine
+	 */
+	private final FrontierIndex frontier;
+	
+	/**
+	 * Sorted frontier cells, numbers next to them and the flag of the listed numbers
+	 */
+	private int cells[];
+	private int numbers[];
+	private final boolean listed[];
+	
+	/**
+	 * Variable of every cell (-1 if the cell is not on the frontier)
+	 */
+	private final int variableOf[];
+	
+	/**
+	 * Frontier cells (the variables), their union-find parents, their column inside the
+	 * component and their deductions
+	 */
+	private int variables[];
+	private int parent[];
+	private int column[];
+	private byte deduced[];
+	private int variableCount;
+	
+	/**
+	 * Equations: the variables of equation e are equationVariables[equationStart[e] .. equationStart[e + 1])
+	 */
+	private int equationStart[];
+	private int equationVariables[];
+	private int equationValue[];
+	private int equationCount;
+	
+	/**
+	 * Component of every variable, variables and equations sorted by component
+	 */
+	private int componentOf[];
+	private int componentStart[];
+	private int sortedVariables[];
+	private int equationComponentStart[];
+	private int sortedEquations[];
+	
+	/**
+	 * Packed rows of the component being reduced
+	 */
+	private long positive[];
+	private long negative[];
+	private int value[];
+	
+	/**
+	 * Span of the non zero columns of every row [low, high): the columns follow the board
+	 * scan, so the rows are banded and the elimination only touches the rows and the words
+	 * of the span
+	 */
+	private int low[];
+	private int high[];
+	
+	/**
+	 * Rows sorted by their first column, the rows whose span holds the current column,
+	 * the rows already used as pivot and the counts of the sort
+	 */
+	private int order[];
+	private int active[];
+	private boolean pivoted[];
+	private int lowCount[];
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 */
+	public LinearSolver(BoardEngine engine)
+	{
+		//I expect the engine not null
+		if(engine == null)
+		{
+			throw new NullPointerException("Error engine null pointer [LinearSolver]");
+		}
+		
+		store 		= engine.getStore();
+		frontier 	= engine.getFrontier();
+		
+		//Instance the arrays
+		variableOf 				= new int[store.getSize()];
+		listed 					= new boolean[store.getSize()];
+		cells 					= new int[64];
+		numbers 				= new int[64];
+		variables 				= new int[64];
+		parent 					= new int[64];
+		column 					= new int[64];
+		deduced 				= new byte[64];
+		equationStart 			= new int[65];
+		equationVariables 		= new int[512];
+		equationValue 			= new int[64];
+		componentOf 			= new int[64];
+		componentStart 			= new int[65];
+		sortedVariables 		= new int[64];
+		equationComponentStart 	= new int[65];
+		sortedEquations 		= new int[64];
+		positive 				= new long[64];
+		negative 				= new long[64];
+		value 					= new int[64];
+		low 					= new int[64];
+		high 					= new int[64];
+		order 					= new int[64];
+		active 					= new int[64];
+		pivoted 				= new boolean[64];
+		lowCount 				= new int[65];
+		
+		Arrays.fill(variableOf, -1);
+	}
+	
+	@Override
+	public void solve(Deductions result)
+	{
+		result.clear();
+		
+		collect();
+		
+		int components = sort();
+		
+		for(int c = 0; c < components; c++)
+		{
+			reduce(c);
+		}
+		
+		//Report the deductions and forget the variables
+		for(int v = 0; v < variableCount; v++)
+		{
+			if(deduced[v] == SAFE && store.getStateOrdinal(variables[v]) == HIDDEN) { result.addSafe(variables[v]); }
+			if(deduced[v] == MINE && store.getStateOrdinal(variables[v]) == HIDDEN) { result.addMine(variables[v]); }
+			
+			variableOf[variables[v]] = -1;
+		}
+	}
+	
+	/**
+	 * Method that builds the equations of the numbers next to the frontier and joins
+	 * the variables of every equation in the same component
+	 */
+	private void collect()
+	{
+		int width 	= store.getWidth();
+		int height 	= store.getHeight();
+		
+		variableCount 	= 0;
+		equationCount 	= 0;
+		
+		//The frontier in board order, so the columns follow the board scan and the rows stay banded
+		if(cells.length < frontier.size()) { cells = new int[Math.max(frontier.size(), cells.length * 2)]; }
+		for(int k = 0; k < frontier.size(); k++) { cells[k] = frontier.get(k); }
+		Arrays.sort(cells, 0, frontier.size());
+		
+		//The numbers next to the frontier cells, each one listed once
+		int numberCount = 0;
+		for(int k = 0; k < frontier.size(); k++)
+		{
+			int i = cells[k] / height;
+			int j = cells[k] - i * height;
+			
+			for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, width - 1); ni++)
+			{
+				for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+				{
+					int neighbour = ni * height + nj;
+					int state = store.getStateOrdinal(neighbour);
+					
+					if(state < CELL_1 || state > CELL_8 || listed[neighbour]) { continue; }
+					
+					if(numberCount == numbers.length) { numbers = Arrays.copyOf(numbers, numberCount * 2); }
+					
+					listed[neighbour] = true;
+					numbers[numberCount++] = neighbour;
+				}
+			}
+		}
+		
+		int size = 0;
+		for(int k = 0; k < numberCount; k++)
+		{
+			int index = numbers[k];
+			int i = index / height;
+			int j = index - i * height;
+			int first = -1;
+			
+			listed[index] = false;
+			
+			//Grow the equations arrays if needed
+			if(equationCount + 1 == equationStart.length) { equationStart = Arrays.copyOf(equationStart, equationStart.length * 2); }
+			if(equationCount == equationValue.length) { equationValue = Arrays.copyOf(equationValue, equationValue.length * 2); }
+			if(size + 8 > equationVariables.length) { equationVariables = Arrays.copyOf(equationVariables, equationVariables.length * 2); }
+			
+			int start = size;
+			
+			for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, width - 1); ni++)
+			{
+				for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+				{
+					int neighbour = ni * height + nj;
+					int neighbourState = store.getStateOrdinal(neighbour);
+					
+					//The flags are not trusted
+					if(neighbourState != HIDDEN && neighbourState != FLAG) { continue; }
+					
+					int variable = variable(neighbour);
+					equationVariables[size++] = variable;
+					
+					//All the variables of an equation are in the same component
+					if(first == -1) { first = variable; }
+					else 			{ union(first, variable); }
+				}
+			}
+			
+			equationStart[equationCount] 	= start;
+			equationValue[equationCount] 	= store.getStateOrdinal(index) - 1;
+			equationCount++;
+			equationStart[equationCount] 	= size;
+		}
+	}
+	
+	/**
+	 * Method that returns the variable of a cell, creating it the first time
+	 * @param index The linear index of the hidden cell
+	 * @return The variable
+	 */
+	private int variable(int index)
+	{
+		if(variableOf[index] != -1) { return variableOf[index]; }
+		
+		//Grow the variables arrays if needed
+		if(variableCount == variables.length)
+		{
+			int length 	= variables.length * 2;
+			variables 	= Arrays.copyOf(variables, length);
+			parent 		= Arrays.copyOf(parent, length);
+			column 		= Arrays.copyOf(column, length);
+			deduced 	= Arrays.copyOf(deduced, length);
+		}
+		
+		int variable = variableCount++;
+		variables[variable] = index;
+		parent[variable] 	= variable;
+		deduced[variable] 	= UNKNOWN;
+		variableOf[index] 	= variable;
+		
+		return variable;
+	}
+	
+	/**
+	 * @param variable The variable
+	 * @return The root of the variable component (with path halving)
+	 */
+	private int find(int variable)
+	{
+		while(parent[variable] != variable)
+		{
+			parent[variable] = parent[parent[variable]];
+			variable = parent[variable];
+		}
+		
+		return variable;
+	}
+	
+	/**
+	 * Method that joins the components of two variables
+	 * @param a The first variable
+	 * @param b The second variable
+	 */
+	private void union(int a, int b)
+	{
+		a = find(a);
+		b = find(b);
+		
+		if(a != b) { parent[a] = b; }
+	}
+	
+	/**
+	 * Method that sorts the variables and the equations by component (counting sort) and
+	 * assigns to every variable its column inside the component
+	 * @return The number of components
+	 */
+	private int sort()
+	{
+		//Grow the arrays if needed
+		if(sortedVariables.length < variableCount)
+		{
+			sortedVariables 		= new int[variables.length];
+			componentOf 			= new int[variables.length];
+			componentStart 			= new int[variables.length + 1];
+			equationComponentStart 	= new int[variables.length + 1];
+		}
+		if(sortedEquations.length < equationCount) { sortedEquations = new int[equationValue.length]; }
+		
+		//Number the components from their roots
+		int components = 0;
+		for(int v = 0; v < variableCount; v++)
+		{
+			if(find(v) == v) { componentOf[v] = components++; }
+		}
+		for(int v = 0; v < variableCount; v++)
+		{
+			componentOf[v] = componentOf[find(v)];
+		}
+		
+		Arrays.fill(componentStart, 0, components + 1, 0);
+		Arrays.fill(equationComponentStart, 0, components + 1, 0);
+		
+		//Sizes of the components
+		for(int v = 0; v < variableCount; v++) 	{ componentStart[componentOf[v] + 1]++; }
+		for(int e = 0; e < equationCount; e++) 	{ equationComponentStart[component(e) + 1]++; }
+		for(int c = 0; c < components; c++)
+		{
+			componentStart[c + 1] 			+= componentStart[c];
+			equationComponentStart[c + 1] 	+= equationComponentStart[c];
+		}
+		
+		//Place the variables and the equations (the starts move to the next component)
+		for(int v = 0; v < variableCount; v++)
+		{
+			int c = componentOf[v];
+			column[v] = componentStart[c];
+			sortedVariables[componentStart[c]++] = v;
+		}
+		for(int e = 0; e < equationCount; e++)
+		{
+			sortedEquations[equationComponentStart[component(e)]++] = e;
+		}
+		
+		//Restore the starts
+		for(int c = components; c > 0; c--)
+		{
+			componentStart[c] 			= componentStart[c - 1];
+			equationComponentStart[c] 	= equationComponentStart[c - 1];
+		}
+		componentStart[0] 			= 0;
+		equationComponentStart[0] 	= 0;
+		
+		//Columns relative to the component
+		for(int v = 0; v < variableCount; v++)
+		{
+			column[v] -= componentStart[componentOf[v]];
+		}
+		
+		return components;
+	}
+	
+	/**
+	 * @param equation The equation
+	 * @return The component number of the equation
+	 */
+	private int component(int equation) { return componentOf[equationVariables[equationStart[equation]]]; }
+	
+	/**
+	 * Method that builds the packed rows of a component, reduces them and reads the deductions
+	 * @param component The component number
+	 */
+	private void reduce(int component)
+	{
+		int firstVariable 	= componentStart[component];
+		int columns 		= componentStart[component + 1] - firstVariable;
+		int firstEquation 	= equationComponentStart[component];
+		int rows 			= equationComponentStart[component + 1] - firstEquation;
+		int words 			= (columns + 63) >>> 6;
+		
+		//Grow the rows arrays if needed
+		if(positive.length < rows * words)
+		{
+			positive = new long[Math.max(rows * words, positive.length * 2)];
+			negative = new long[positive.length];
+		}
+		if(value.length < rows)
+		{
+			value 	= new int[Math.max(rows, value.length * 2)];
+			low 	= new int[value.length];
+			high 	= new int[value.length];
+			order 	= new int[value.length];
+			active 	= new int[value.length];
+			pivoted = new boolean[value.length];
+		}
+		if(lowCount.length < columns + 1) { lowCount = new int[Math.max(columns + 1, lowCount.length * 2)]; }
+		
+		//Pack the equations
+		Arrays.fill(positive, 0, rows * words, 0);
+		Arrays.fill(negative, 0, rows * words, 0);
+		Arrays.fill(lowCount, 0, columns + 1, 0);
+		for(int r = 0; r < rows; r++)
+		{
+			int equation = sortedEquations[firstEquation + r];
+			
+			low[r] 	= columns;
+			high[r] = 0;
+			for(int k = equationStart[equation]; k < equationStart[equation + 1]; k++)
+			{
+				int c = column[equationVariables[k]];
+				positive[r * words + (c >>> 6)] |= 1L << c;
+				low[r] 	= Math.min(low[r], c);
+				high[r] = Math.max(high[r], c + 1);
+			}
+			value[r] 	= equationValue[equation];
+			pivoted[r] 	= false;
+			lowCount[low[r] + 1]++;
+		}
+		
+		//The single equations first, then the reduced ones
+		deduce(rows, words, firstVariable);
+		
+		//Rows sorted by their first column (counting sort)
+		for(int c = 0; c < columns; c++) { lowCount[c + 1] += lowCount[c]; }
+		for(int r = 0; r < rows; r++) { order[lowCount[low[r]]++] = r; }
+		
+		//Only the active rows (whose span holds the column) are scanned: a row enters when the
+		//columns reach its first one and leaves after its last one, the spans only grow on
+		//active rows so a row that left never comes back
+		int next 		= 0;
+		int activeSize 	= 0;
+		
+		for(int c = 0; c < columns; c++)
+		{
+			int word 	= c >>> 6;
+			long bit 	= 1L << c;
+			
+			while(next < rows && low[order[next]] <= c) { active[activeSize++] = order[next++]; }
+			
+			//Drop the rows that ended and find the pivot
+			int pivot = -1;
+			int kept = 0;
+			for(int k = 0; k < activeSize; k++)
+			{
+				int r = active[k];
+				if(high[r] <= c) { continue; }
+				active[kept++] = r;
+				
+				if(pivot == -1 && !pivoted[r] && ((positive[r * words + word] | negative[r * words + word]) & bit) != 0) { pivot = r; }
+			}
+			activeSize = kept;
+			
+			if(pivot == -1) { continue; }
+			
+			pivoted[pivot] = true;
+			
+			//The pivot coefficient is +1
+			if((negative[pivot * words + word] & bit) != 0) { negate(pivot, words); }
+			
+			//Eliminate the column from the other rows
+			for(int k = 0; k < activeSize; k++)
+			{
+				int r = active[k];
+				if(r == pivot) { continue; }
+				
+				if((positive[r * words + word] & bit) != 0) 		{ combine(r, pivot, words, false); }
+				else if((negative[r * words + word] & bit) != 0) 	{ combine(r, pivot, words, true); }
+			}
+		}
+		
+		deduce(rows, words, firstVariable);
+	}
+	
+	/**
+	 * Method that subtracts (or adds) the pivot row to a row, unless a coefficient of 2 would appear
+	 * @param row The row to change
+	 * @param pivot The pivot row
+	 * @param words The words of a row
+	 * @param add If the pivot is added (the row coefficient is -1) instead of subtracted
+	 */
+	private void combine(int row, int pivot, int words, boolean add)
+	{
+		int r = row * words;
+		int p = pivot * words;
+		
+		//Adding the pivot is subtracting the negated pivot
+		long pivotPositive[] = add ? negative : positive;
+		long pivotNegative[] = add ? positive : negative;
+		
+		//Only the common span can hold coefficients of 2, i check them first
+		for(int w = Math.max(low[row], low[pivot]) >>> 6; w <= (Math.min(high[row], high[pivot]) - 1) >>> 6; w++)
+		{
+			if(((positive[r + w] & pivotNegative[p + w]) | (negative[r + w] & pivotPositive[p + w])) != 0) { return; }
+		}
+		
+		low[row] 	= Math.min(low[row], low[pivot]);
+		high[row] 	= Math.max(high[row], high[pivot]);
+		
+		for(int w = low[row] >>> 6; w <= (high[row] - 1) >>> 6; w++)
+		{
+			long rowPositive 	= positive[r + w];
+			long rowNegative 	= negative[r + w];
+			long otherPositive 	= pivotPositive[p + w];
+			long otherNegative 	= pivotNegative[p + w];
+			
+			positive[r + w] = (rowPositive & ~otherPositive) | (otherNegative & ~rowNegative);
+			negative[r + w] = (rowNegative & ~otherNegative) | (otherPositive & ~rowPositive);
+		}
+		
+		value[row] += add ? value[pivot] : -value[pivot];
+	}
+	
+	/**
+	 * Method that reads the forced variables of the rows
+	 * @param rows The number of rows
+	 * @param words The words of a row
+	 * @param firstVariable The position of the first component variable in sortedVariables
+	 */
+	private void deduce(int rows, int words, int firstVariable)
+	{
+		for(int r = 0; r < rows; r++)
+		{
+			int maximum = 0;
+			int minimum = 0;
+			
+			for(int w = low[r] >>> 6; w <= (high[r] - 1) >>> 6; w++)
+			{
+				maximum += Long.bitCount(positive[r * words + w]);
+				minimum -= Long.bitCount(negative[r * words + w]);
+			}
+			
+			//Nothing forced (or an empty row)
+			if(maximum == minimum || (value[r] != maximum && value[r] != minimum)) { continue; }
+			
+			byte positiveValue = value[r] == maximum ? MINE : SAFE;
+			byte negativeValue = value[r] == maximum ? SAFE : MINE;
+			
+			for(int w = low[r] >>> 6; w <= (high[r] - 1) >>> 6; w++)
+			{
+				mark(positive[r * words + w], w, firstVariable, positiveValue);
+				mark(negative[r * words + w], w, firstVariable, negativeValue);
+			}
+		}
+	}
+	
+	/**
+	 * Method that marks the variables of a word
+	 * @param bits The word bits
+	 * @param word The word number
+	 * @param firstVariable The position of the first component variable in sortedVariables
+	 * @param mark SAFE or MINE
+	 */
+	private void mark(long bits, int word, int firstVariable, byte mark)
+	{
+		while(bits != 0)
+		{
+			int c = (word << 6) + Long.numberOfTrailingZeros(bits);
+			deduced[sortedVariables[firstVariable + c]] = mark;
+			bits &= bits - 1;
+		}
+	}
+	
+	/**
+	 * Method that multiplies a row by -1
+	 * @param row The row
+	 * @param words The words of a row
+	 */
+	private void negate(int row, int words)
+	{
+		for(int w = low[row] >>> 6; w <= (high[row] - 1) >>> 6; w++)
+		{
+			long t = positive[row * words + w];
+			positive[row * words + w] = negative[row * words + w];
+			negative[row * words + w] = t;
+		}
+		
+		value[row] = -value[row];
+	}
+}
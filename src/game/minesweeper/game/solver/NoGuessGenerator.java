@@ -0,0 +1,388 @@
+package game.minesweeper.game.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.BoardLayout;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.FrontierIndex;
+import game.minesweeper.game.board.GameState;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * This class generates boards that can be solved from their start cell without guessing.
+ * Random candidates are generated in parallel (in a pool that leaves a core to the game) and every candidate is
+ * played headless: the rule solver applies the guaranteed moves and, when it is stuck, the
+ * exact probability engine looks for the cells with probability 0 or 1 (its exact count is limited
+ * by a number of states and not by the time, so the verification depends only on the board). The candidates are
+ * numbered and every one has its random source from the seed and its number: the won candidate
+ * with the lowest number is returned, so a seed always gives the same sequence of boards
+ * (as long as no search gives up). A background thread keeps a small bounded pool of verified
+ * boards per configuration and the boards are taken without waiting, so the game never blocks on a search.
+ * @author Matteo Pignataro
+ */
+public class NoGuessGenerator
+{
+	/**
+	 * Verified boards kept ready for every configuration
+	 */
+	private static final int POOL_SIZE = 4;
+	
+	/**
+	 * Candidates tried before giving up (the last candidate is returned not verified)
+	 */
+	private static final int MAX_CANDIDATES = 200_000;
+	
+	/**
+	 * Time given to a search before giving up in nanoseconds (the last candidate is returned not verified)
+	 */
+	private static final long SEARCH_TIME = 10_000_000_000L;
+	
+	/**
+	 * Maximum number of states of the exact count of a component during the verification
+	 */
+	private static final long PROBABILITY_STATES = 1_000_000;
+	
+	/**
+	 * States ordinals of the hidden cells
+	 */
+	private static final int HIDDEN = CellState.CELL_HIDDEN.ordinal();
+	private static final int FLAG 	= CellState.FLAG.ordinal();
+	
+	/**
+	 * Tolerance of the probabilities 0 and 1 (rounding of an exact computation)
+	 */
+	private static final double EPSILON = 1e-6;
+	
+	/**
+	 * Pool of the search workers shared by all the configurations. It is bounded and separated
+	 * from the common pool, that stays free for the game (board bands and probabilities)
+	 */
+	private static final ForkJoinPool workers = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	
+	/**
+	 * Generators by configuration
+	 */
+	private static final Map<String, NoGuessGenerator> generators = new ConcurrentHashMap<String, NoGuessGenerator>();
+	
+	/**
+	 * Board dimensions in cells
+	 */
+	private final int width;
+	private final int height;
+	
+	/**
+	 * Generator that places the mines of the candidates
+	 */
+	private final BoardGenerator generator;
+	
+	/**
+	 * Verified boards ready to be played
+	 */
+	private final BlockingQueue<BoardLayout> pool;
+	
+	/**
+	 * Background thread that fills the pool
+	 */
+	private Thread filler;
+	
+	/**
+	 * Number of the first candidate of the next search
+	 */
+	private long nextCandidate;
+	
+	/**
+	 * Lock of the searches
+	 */
+	private final Object searchLock = new Object();
+	
+	/**
+	 * Constructor
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param generator The generator that places the mines of the candidates
+	 */
+	public NoGuessGenerator(int width, int height, BoardGenerator generator)
+	{
+		//I expect the generator not null
+		if(generator == null)
+		{
+			throw new NullPointerException("Error generator null pointer [NoGuessGenerator]");
+		}
+		
+		//In case of negative or 0 width or height i use the value 10 (as the board store)
+		this.width 		= width > 0 	? width 	: 10;
+		this.height 	= height > 0 	? height 	: 10;
+		this.generator 	= generator;
+		
+		pool = new ArrayBlockingQueue<BoardLayout>(POOL_SIZE);
+	}
+	
+	/**
+	 * Method that returns the shared generator of a configuration
+	 * @param width The width in cells
+	 * @param height The height in cells
+	 * @param generator The generator that places the mines (used only by a new configuration)
+	 * @return The no guess generator of the configuration
+	 */
+	public static NoGuessGenerator forConfiguration(int width, int height, BoardGenerator generator)
+	{
+		String key = width + "x" + height + ":" + generator.getMode() + ":" + generator.getDensity() + ":" + generator.getBombs() + ":" + generator.getSeed();
+		
+		return generators.computeIfAbsent(key, (String k) -> new NoGuessGenerator(width, height, generator));
+	}
+	
+	/**
+	 * Method that takes a verified board from the pool without waiting. The first call
+	 * starts the background search.
+	 * @return A layout solvable without guessing from its start cell, or null if none is ready yet
+	 */
+	public BoardLayout poll()
+	{
+		startFiller();
+		
+		return pool.poll();
+	}
+	
+	/**
+	 * Method that starts the background thread that keeps the pool full
+	 */
+	private synchronized void startFiller()
+	{
+		if(filler != null) { return; }
+		
+		filler = new Thread(() ->
+		{
+			try
+			{
+				while(true)
+				{
+					//It blocks while the pool is full
+					pool.put(search());
+				}
+			}
+			catch(InterruptedException e)
+			{
+				//The filler is stopped
+			}
+		}, "NoGuessGenerator " + width + "x" + height);
+		
+		filler.setDaemon(true);
+		filler.start();
+	}
+	
+	/**
+	 * Method that searches a verified board with all the workers of the pool
+	 * @return The verified layout with the lowest number (or a not verified one after too many candidates or too much time)
+	 */
+	public BoardLayout search()
+	{
+		//The searches are sequential (every one continues the sequence of the previous one), but
+		//they don't hold the generator lock, so taking a board never waits for a search
+		synchronized(searchLock)
+		{
+			SearchResult result = new SearchResult();
+			long first = nextCandidate;
+			AtomicLong candidates = new AtomicLong(first);
+			long deadline = System.nanoTime() + SEARCH_TIME;
+			
+			List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+			for(int w = 0; w < workers.getParallelism(); w++)
+			{
+				tasks.add(workers.submit(() -> work(result, candidates, first, deadline)));
+			}
+			
+			for(ForkJoinTask<?> task : tasks)
+			{
+				task.join();
+			}
+			
+			//The next search continues the same sequence
+			nextCandidate = result.number + 1;
+			
+			return result.layout;
+		}
+	}
+	
+	/**
+	 * Worker loop: it verifies candidates until no candidate before the found one is left
+	 * @param result The shared result
+	 * @param candidates The shared number of the next candidate
+	 * @param first The number of the first candidate of the search
+	 * @param deadline The time limit of the search
+	 */
+	private void work(SearchResult result, AtomicLong candidates, long first, long deadline)
+	{
+		Verifier verifier = new Verifier();
+		
+		while(true)
+		{
+			long candidate = candidates.getAndIncrement();
+			
+			//The candidates after the found one can't be returned
+			if(candidate >= result.getNumber()) { return; }
+			
+			BoardLayout layout = verifier.candidate(new SplittableRandom(generator.getSeed() ^ candidate * 0x9E3779B97F4A7C15L));
+			
+			if(verifier.verify(layout))
+			{
+				result.offer(candidate, layout);
+			}
+			else if(candidate - first + 1 >= MAX_CANDIDATES || System.nanoTime() > deadline)
+			{
+				//Too hard: the board is played with the guesses
+				result.offer(candidate, new BoardLayout(verifier.candidates, layout.getStart(), false));
+			}
+		}
+	}
+	
+	/**
+	 * Found layout with the lowest candidate number of a search
+	 * @author Matteo Pignataro
+	 */
+	private static class SearchResult
+	{
+		long number = Long.MAX_VALUE;
+		BoardLayout layout;
+		
+		/**
+		 * Method that keeps the layout if its number is the lowest
+		 */
+		synchronized void offer(long number, BoardLayout layout)
+		{
+			if(number < this.number)
+			{
+				this.number = number;
+				this.layout = layout;
+			}
+		}
+		
+		synchronized long getNumber() { return number; }
+	}
+	
+	/**
+	 * Headless player of the candidates of a single worker
+	 * @author Matteo Pignataro
+	 */
+	private class Verifier
+	{
+		/**
+		 * Store where the candidates are generated
+		 */
+		final BoardStore candidates;
+		
+		/**
+		 * Engine, solver and probabilities used to play the candidates
+		 */
+		final BoardEngine engine;
+		final SolverPlayer player;
+		final ProbabilityEngine probabilities;
+		
+		/**
+		 * Frontier cells decided by a computation (copied, the moves change the frontier)
+		 */
+		int cells[];
+		
+		Verifier()
+		{
+			candidates 		= new BoardStore(width, height);
+			engine 			= new BoardEngine(width, height, generator);
+			player 			= new SolverPlayer(engine, new RuleSolver(engine));
+			//The workers are already parallel: the components are solved in the worker thread
+			probabilities 	= new ProbabilityEngine(engine, 0, false, PROBABILITY_STATES);
+			cells 			= new int[64];
+		}
+		
+		/**
+		 * Method that generates a candidate with a random start cell
+		 * @param random The candidate random source
+		 * @return The candidate layout
+		 */
+		BoardLayout candidate(SplittableRandom random)
+		{
+			int start = random.nextInt(width * height);
+			
+			candidates.clear();
+			generator.generate(candidates, start, random);
+			
+			return new BoardLayout(candidates, start, true);
+		}
+		
+		/**
+		 * Method that plays a layout without guessing
+		 * @param layout The layout to play
+		 * @return If the layout has been won
+		 */
+		boolean verify(BoardLayout layout)
+		{
+			engine.start(layout);
+			BoardStore store = engine.getStore();
+			FrontierIndex frontier = engine.getFrontier();
+			
+			while(engine.isPlaying())
+			{
+				//All the guaranteed moves of the rules
+				player.play(Long.MAX_VALUE >>> 2);
+				
+				if(!engine.isPlaying()) { break; }
+				
+				//Stuck: the exact probabilities can still find safe cells and mines
+				if(!probabilities.compute() || !probabilities.isExact()) { return false; }
+				
+				//The interior cells share a probability: they are decided only when it is 0 or 1
+				double interior = probabilities.getInteriorProbability();
+				boolean interiorDecided = frontier.getHiddenCount() > frontier.size() && (interior < EPSILON || interior > 1 - EPSILON);
+				
+				int count = frontier.size();
+				if(cells.length < count) { cells = new int[Math.max(count, cells.length * 2)]; }
+				for(int k = 0; k < count; k++) { cells[k] = frontier.get(k); }
+				
+				boolean progress = false;
+				for(int k = 0; k < count && engine.isPlaying(); k++)
+				{
+					progress |= decide(cells[k]);
+				}
+				
+				//The interior cells are the hidden ones out of the frontier: the scan ends after the last one
+				int left = interiorDecided ? frontier.getHiddenCount() - frontier.size() : 0;
+				for(int index = 0; left > 0 && frontier.getHiddenCount() > frontier.size() && index < store.getSize() && engine.isPlaying(); index++)
+				{
+					int state = store.getStateOrdinal(index);
+					if((state == HIDDEN || state == FLAG) && !frontier.contains(index)) { left--; }
+					
+					progress |= decide(index);
+				}
+				
+				//Only guesses are left
+				if(!progress) { return false; }
+			}
+			
+			return engine.getState() == GameState.GAME_WIN;
+		}
+		
+		/**
+		 * Method that reveals a hidden cell with probability 0 or flags one with probability 1
+		 * @param index The linear cell index
+		 * @return If the cell has been decided
+		 */
+		boolean decide(int index)
+		{
+			if(engine.getStore().getStateOrdinal(index) != HIDDEN) { return false; }
+			
+			if(probabilities.getProbability(index) < EPSILON) 			{ engine.reveal(index); return true; }
+			if(probabilities.getProbability(index) > 1 - EPSILON) 		{ engine.flag(index); return true; }
+			
+			return false;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package game.minesweeper.game.solver;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.FrontierIndex;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Solver that looks up the window key of every frontier cell in a precomputed pattern table.
+ * Only when the lookups find nothing (the patterns on the board are unknown or not forced)
+ * the full fallback solver is called, so on large boards a solve is mostly a hash lookup
+ * per frontier cell.
+ * @author Matteo Pignataro
+ */
+public class PatternSolver implements Solver
+{
+	/**
+	 * The board store of the engine
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * The frontier index of the engine
+	 */
+	private final FrontierIndex frontier;
+	
+	/**
+	 * The precomputed outcomes
+	 */
+	private final PatternTable table;
+	
+	/**
+	 * The solver used when the table finds nothing (can be null)
+	 */
+	private final Solver fallback;
+	
+	/**
+	 * Lookups statistics
+	 */
+	private long hits;
+	private long misses;
+	private long fallbacks;
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 * @param table The pattern table
+	 * @param fallback The full solver used when the table finds nothing (can be null)
+	 */
+	public PatternSolver(BoardEngine engine, PatternTable table, Solver fallback)
+	{
+		//I expect engine and table not null
+		if(engine == null)
+		{
+			throw new NullPointerException("Error engine null pointer [PatternSolver]");
+		}
+		
+		if(table == null)
+		{
+			throw new NullPointerException("Error table null pointer [PatternSolver]");
+		}
+		
+		this.store 		= engine.getStore();
+		this.frontier 	= engine.getFrontier();
+		this.table 		= table;
+		this.fallback 	= fallback;
+	}
+	
+	@Override
+	public void solve(Deductions result)
+	{
+		result.clear();
+		
+		int hidden = CellState.CELL_HIDDEN.ordinal();
+		
+		//Only the frontier cells have a key
+		for(int k = 0; k < frontier.size(); k++)
+		{
+			int index = frontier.get(k);
+			long key = PatternTable.key(store, index);
+			
+			if(key == PatternTable.NO_KEY) { continue; }
+			
+			byte outcome = table.get(key);
+			
+			if(outcome == PatternTable.MISSING)
+			{
+				misses++;
+				continue;
+			}
+			
+			hits++;
+			
+			//The flagged cells are not reported
+			if(store.getStateOrdinal(index) != hidden) { continue; }
+			
+			if(outcome == PatternTable.SAFE) 		{ result.addSafe(index); }
+			else if(outcome == PatternTable.MINE) 	{ result.addMine(index); }
+		}
+		
+		if(result.isEmpty() && fallback != null)
+		{
+			fallbacks++;
+			fallback.solve(result);
+		}
+	}
+	
+	//Simple getters
+	public long getHits() 		{ return hits; }
+	public long getMisses() 	{ return misses; }
+	public long getFallbacks() 	{ return fallbacks; }
+}
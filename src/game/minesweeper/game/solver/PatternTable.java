@@ -0,0 +1,452 @@
+package game.minesweeper.game.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Table of the forced outcomes of the local patterns. The key of a hidden cell encodes the
+ * 5x5 window around it: 4 bits for every one of the 8 neighbours (hidden, number or outside)
+ * and 1 bit for every cell of the outer ring that is hidden and next to a neighbour number
+ * (the other ring cells do not change the outcome, so they are left out of the key).
+ * The 8 rotations and mirrors of a window share the same key.
+ * The outcome of a key only depends on the key itself: the numbers next to the cell are
+ * the constraints and the hidden cells of the window are the variables.
+ * The table is a primitive open addressing hash map of long keys and byte outcomes.
+ * @author Matteo Pignataro
+ */
+public class PatternTable
+{
+	/**
+	 * Outcomes of the centre cell (MISSING means that the key is not in the table)
+	 */
+	public static final byte MISSING 	= -1;
+	public static final byte UNKNOWN 	= 0;
+	public static final byte SAFE 		= 1;
+	public static final byte MINE 		= 2;
+	
+	/**
+	 * Value returned by key when the cell is not a frontier cell
+	 */
+	public static final long NO_KEY = -1;
+	
+	/**
+	 * Neighbour codes
+	 */
+	private static final int CODE_HIDDEN 	= 0;
+	private static final int CODE_NONE 		= 9;
+	private static final int CODE_OUTSIDE 	= 10;
+	
+	/**
+	 * Serialised file header
+	 */
+	private static final int MAGIC = 0x50544E31;
+	
+	/**
+	 * Marker bit of the stored keys, so the 0 slot is empty
+	 */
+	private static final long USED = 1L << 63;
+	
+	/**
+	 * Offsets (di, dj) of the 8 neighbours and of the 16 outer ring cells
+	 */
+	private static final int INNER[][] = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+	private static final int OUTER[][] = {{-2, -2}, {-2, -1}, {-2, 0}, {-2, 1}, {-2, 2}, {-1, -2}, {-1, 2}, {0, -2},
+										  {0, 2}, {1, -2}, {1, 2}, {2, -2}, {2, -1}, {2, 0}, {2, 1}, {2, 2}};
+	
+	/**
+	 * Outer ring cells next to every neighbour (bit mask of OUTER)
+	 */
+	private static final int OUTER_NEAR[] = new int[INNER.length];
+	
+	/**
+	 * Destination of every neighbour and of every ring cell under the 8 symmetries of the square
+	 */
+	private static final int INNER_MAP[][] = new int[8][INNER.length];
+	private static final int OUTER_MAP[][] = new int[8][OUTER.length];
+	
+	static
+	{
+		for(int t = 0; t < 8; t++)
+		{
+			for(int k = 0; k < INNER.length; k++) 	{ INNER_MAP[t][k] = find(INNER, transform(t, INNER[k])); }
+			for(int m = 0; m < OUTER.length; m++) 	{ OUTER_MAP[t][m] = find(OUTER, transform(t, OUTER[m])); }
+		}
+		
+		for(int k = 0; k < INNER.length; k++)
+		{
+			for(int m = 0; m < OUTER.length; m++)
+			{
+				if(Math.abs(INNER[k][0] - OUTER[m][0]) <= 1 && Math.abs(INNER[k][1] - OUTER[m][1]) <= 1)
+				{
+					OUTER_NEAR[k] |= 1 << m;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param t The symmetry (bit 0 swaps the axes, bit 1 and 2 mirror them)
+	 * @param offset The offset (di, dj)
+	 * @return The transformed offset
+	 */
+	private static int[] transform(int t, int offset[])
+	{
+		int di = (t & 1) == 0 ? offset[0] : offset[1];
+		int dj = (t & 1) == 0 ? offset[1] : offset[0];
+		
+		return new int[] {(t & 2) == 0 ? di : -di, (t & 4) == 0 ? dj : -dj};
+	}
+	
+	/**
+	 * @return The position of an offset inside a table
+	 */
+	private static int find(int table[][], int offset[])
+	{
+		for(int k = 0; k < table.length; k++)
+		{
+			if(table[k][0] == offset[0] && table[k][1] == offset[1]) { return k; }
+		}
+		
+		throw new RuntimeException("Offset not found [PatternTable]");
+	}
+	
+	/**
+	 * Stored keys (with the USED bit) and outcomes
+	 */
+	private long keys[];
+	private byte outcomes[];
+	
+	/**
+	 * Number of stored keys
+	 */
+	private int size;
+	
+	/**
+	 * Constructor of an empty table
+	 */
+	public PatternTable()
+	{
+		keys 		= new long[1024];
+		outcomes 	= new byte[1024];
+		size 		= 0;
+	}
+	
+	/**
+	 * Method that loads a serialised table
+	 * @param path The file path
+	 * @return The loaded table or an empty one if the file does not exist
+	 */
+	public static PatternTable load(String path)
+	{
+		PatternTable table = new PatternTable();
+		
+		if(path == null || !new File(path).isFile()) { return table; }
+		
+		try(DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(path))))
+		{
+			if(input.readInt() != MAGIC)
+			{
+				throw new RuntimeException("Not a pattern table " + path + " [PatternTable]");
+			}
+			
+			int count = input.readInt();
+			for(int k = 0; k < count; k++)
+			{
+				long key = input.readLong();
+				table.put(key, input.readByte());
+			}
+		}
+		catch(IOException e)
+		{
+			throw new RuntimeException("Error reading the pattern table " + path + " [PatternTable]");
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * Method that serialises the table
+	 * @param path The file path
+	 */
+	public void save(String path)
+	{
+		try(DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path))))
+		{
+			output.writeInt(MAGIC);
+			output.writeInt(size);
+			
+			for(int slot = 0; slot < keys.length; slot++)
+			{
+				if(keys[slot] == 0) { continue; }
+				
+				output.writeLong(keys[slot] & ~USED);
+				output.writeByte(outcomes[slot]);
+			}
+		}
+		catch(IOException e)
+		{
+			throw new RuntimeException("Error writing the pattern table " + path + " [PatternTable]");
+		}
+	}
+	
+	/**
+	 * @param key The pattern key
+	 * @return The outcome of the centre cell or MISSING
+	 */
+	public byte get(long key)
+	{
+		long stored = key | USED;
+		int mask = keys.length - 1;
+		
+		for(int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask)
+		{
+			if(keys[slot] == stored) { return outcomes[slot]; }
+		}
+		
+		return MISSING;
+	}
+	
+	/**
+	 * Method that adds (or replaces) an outcome
+	 * @param key The pattern key
+	 * @param outcome The outcome of the centre cell
+	 */
+	public void put(long key, byte outcome)
+	{
+		//Keep the load under 1/2
+		if((size + 1) * 2 > keys.length) { grow(); }
+		
+		long stored = key | USED;
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		
+		while(keys[slot] != 0 && keys[slot] != stored) { slot = (slot + 1) & mask; }
+		
+		if(keys[slot] == 0) { size++; }
+		
+		keys[slot] 		= stored;
+		outcomes[slot] 	= outcome;
+	}
+	
+	/**
+	 * Method that doubles the slots
+	 */
+	private void grow()
+	{
+		long oldKeys[] 		= keys;
+		byte oldOutcomes[] 	= outcomes;
+		
+		keys 		= new long[oldKeys.length * 2];
+		outcomes 	= new byte[oldKeys.length * 2];
+		size 		= 0;
+		
+		for(int slot = 0; slot < oldKeys.length; slot++)
+		{
+			if(oldKeys[slot] != 0) { put(oldKeys[slot] & ~USED, oldOutcomes[slot]); }
+		}
+	}
+	
+	/**
+	 * @param key The pattern key
+	 * @return The mixed hash of the key
+	 */
+	private static int hash(long key)
+	{
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+	
+	/**
+	 * Method that encodes the window around a hidden cell
+	 * @param store The board store
+	 * @param index The linear index of the cell
+	 * @return The key or NO_KEY if the cell is not hidden or has no number near
+	 */
+	public static long key(BoardStore store, int index)
+	{
+		int state = store.getStateOrdinal(index);
+		
+		//The flags are not trusted
+		if(state != CellState.CELL_HIDDEN.ordinal() && state != CellState.FLAG.ordinal()) { return NO_KEY; }
+		
+		int height 	= store.getHeight();
+		int i 		= index / height;
+		int j 		= index - i * height;
+		long key 	= 0;
+		int near 	= 0;
+		
+		for(int k = 0; k < INNER.length; k++)
+		{
+			int code = code(store, i + INNER[k][0], j + INNER[k][1]);
+			key |= (long) code << (4 * k);
+			
+			//Only the ring cells next to a number matter
+			if(code != CODE_HIDDEN && code != CODE_OUTSIDE) { near |= OUTER_NEAR[k]; }
+		}
+		
+		if(near == 0) { return NO_KEY; }
+		
+		for(int m = 0; m < OUTER.length; m++)
+		{
+			if((near & (1 << m)) != 0 && code(store, i + OUTER[m][0], j + OUTER[m][1]) == CODE_HIDDEN)
+			{
+				key |= 1L << (32 + m);
+			}
+		}
+		
+		return canonical(key);
+	}
+	
+	/**
+	 * Method that chooses the smallest key among the 8 symmetric windows, the outcome of the
+	 * centre does not change with a rotation or a mirror so they share the entry
+	 * @param key The window key
+	 * @return The canonical key
+	 */
+	private static long canonical(long key)
+	{
+		long best = key;
+		
+		for(int t = 1; t < 8; t++)
+		{
+			long transformed = 0;
+			
+			for(int k = 0; k < INNER.length; k++)
+			{
+				transformed |= ((key >>> (4 * k)) & 0xF) << (4 * INNER_MAP[t][k]);
+			}
+			for(int m = 0; m < OUTER.length; m++)
+			{
+				transformed |= ((key >>> (32 + m)) & 1) << (32 + OUTER_MAP[t][m]);
+			}
+			
+			best = Math.min(best, transformed);
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * @return The code of a cell: hidden, number 1-8, blank or outside (every other state too)
+	 */
+	private static int code(BoardStore store, int i, int j)
+	{
+		if(i < 0 || j < 0 || i >= store.getWidth() || j >= store.getHeight()) { return CODE_OUTSIDE; }
+		
+		int state = store.getStateOrdinal(store.index(i, j));
+		
+		if(state == CellState.CELL_HIDDEN.ordinal() || state == CellState.FLAG.ordinal()) 		{ return CODE_HIDDEN; }
+		if(state >= CellState.CELL_1.ordinal() && state <= CellState.CELL_8.ordinal()) 			{ return state - 1; }
+		if(state == CellState.CELL_NONE.ordinal()) 												{ return CODE_NONE; }
+		
+		return CODE_OUTSIDE;
+	}
+	
+	/**
+	 * Method that solves the window of a key: every assignment of the hidden window cells
+	 * that satisfies the neighbour numbers is enumerated
+	 * @param key The pattern key
+	 * @return The outcome of the centre cell (SAFE, MINE or UNKNOWN)
+	 */
+	public static byte solve(long key)
+	{
+		//Window cells: -1 not a variable, otherwise the variable number (the centre is 0)
+		int variable[][] = new int[5][5];
+		int variables = 1;
+		
+		for(int line[] : variable) { Arrays.fill(line, -1); }
+		variable[2][2] = 0;
+		
+		for(int k = 0; k < INNER.length; k++)
+		{
+			if(((key >>> (4 * k)) & 0xF) == CODE_HIDDEN) { variable[2 + INNER[k][0]][2 + INNER[k][1]] = variables++; }
+		}
+		for(int m = 0; m < OUTER.length; m++)
+		{
+			if((key & (1L << (32 + m))) != 0) { variable[2 + OUTER[m][0]][2 + OUTER[m][1]] = variables++; }
+		}
+		
+		//Constraints: the variables masks and the mines of the neighbour numbers
+		int masks[] 	= new int[INNER.length];
+		int values[] 	= new int[INNER.length];
+		int constraints = 0;
+		
+		for(int k = 0; k < INNER.length; k++)
+		{
+			int code = (int) ((key >>> (4 * k)) & 0xF);
+			if(code == CODE_HIDDEN || code == CODE_OUTSIDE) { continue; }
+			
+			int mask = 0;
+			for(int di = -1; di <= 1; di++)
+			{
+				for(int dj = -1; dj <= 1; dj++)
+				{
+					int v = variable[2 + INNER[k][0] + di][2 + INNER[k][1] + dj];
+					if(v != -1) { mask |= 1 << v; }
+				}
+			}
+			
+			masks[constraints] 	= mask;
+			values[constraints] = code == CODE_NONE ? 0 : code;
+			constraints++;
+		}
+		
+		//Enumerate the assignments (at most 24 variables, the constraints prune early)
+		int found[] = new int[2];
+		enumerate(0, 0, variables, masks, values, constraints, found);
+		
+		if(found[1] == 0) 	{ return found[0] == 0 ? UNKNOWN : SAFE; }
+		if(found[0] == 0) 	{ return MINE; }
+		return UNKNOWN;
+	}
+	
+	/**
+	 * Backtracking over the variables
+	 * @param v The next variable
+	 * @param mines The mines assigned so far (bit mask)
+	 * @param variables The number of variables
+	 * @param masks The constraints masks
+	 * @param values The constraints values
+	 * @param constraints The number of constraints
+	 * @param found The number of solutions with the centre safe [0] and mine [1]
+	 */
+	private static void enumerate(int v, int mines, int variables, int masks[], int values[], int constraints, int found[])
+	{
+		//Already known in both ways, nothing else to learn
+		if(found[0] > 0 && found[1] > 0) { return; }
+		
+		int assigned = (1 << v) - 1;
+		
+		for(int c = 0; c < constraints; c++)
+		{
+			int placed = Integer.bitCount(mines & masks[c]);
+			int open = Integer.bitCount(masks[c] & ~assigned);
+			
+			if(placed > values[c] || placed + open < values[c]) { return; }
+		}
+		
+		if(v == variables)
+		{
+			found[mines & 1]++;
+			return;
+		}
+		
+		enumerate(v + 1, mines, variables, masks, values, constraints, found);
+		enumerate(v + 1, mines | (1 << v), variables, masks, values, constraints, found);
+	}
+	
+	/**
+	 * @return The number of stored keys
+	 */
+	public int size() { return size; }
+}
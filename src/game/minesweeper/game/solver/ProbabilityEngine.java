@@ -0,0 +1,1377 @@
+package game.minesweeper.game.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.FrontierIndex;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * This class computes the mine probability of every hidden cell from the visible board
+ * and the total number of mines.
+ * The hidden cells near the revealed numbers (the frontier) are split into independent
+ * components (cells connected by a shared number). For every component the consistent
+ * assignments are counted by number of mines with a dynamic programming over its variables
+ * (the assignments that leave the same mines around the numbers still open share the count
+ * of their completions), then the components are combined weighting every total by the ways
+ * of placing the other mines in the unconstrained cells (binomial coefficient over the interior cells).
+ * The components are solved in parallel and the results are memoised by component, so after
+ * a move only the changed components are counted again. When the exact count does not end in
+ * three quarters of the time budget, the component is estimated with the same dynamic programming
+ * keeping only the heaviest states of every position (beam) until the end of the budget, or else
+ * with the local mines density of its numbers, and the result is marked as not exact: those
+ * probabilities are only a heuristic for the guesses, so the no guess verification accepts only
+ * exact results. The exact count can also be limited by a number of states instead of the time,
+ * then the results depend only on the board (the estimate is skipped for the local density).
+ * The components are built from the frontier index of the engine, so the cost of a computation
+ * follows the frontier and not the board size.
+ * The player flags are not trusted: a flagged cell is a hidden cell.
+ * @author Matteo Pignataro
+ */
+public class ProbabilityEngine
+{
+	/**
+	 * States ordinals used in the hot loops
+	 */
+	private static final int HIDDEN = CellState.CELL_HIDDEN.ordinal();
+	private static final int FLAG 	= CellState.FLAG.ordinal();
+	private static final int CELL_1 = CellState.CELL_1.ordinal();
+	private static final int CELL_8 = CellState.CELL_8.ordinal();
+	
+	/**
+	 * Maximum number of states kept at every position by the estimate
+	 */
+	private static final int BEAM_WIDTH = 256;
+	
+	/**
+	 * Maximum number of memoised components
+	 */
+	private static final int CACHE_SIZE = 4096;
+	
+	/**
+	 * Counted states between two time checks
+	 */
+	private static final int CHECK_INTERVAL = 16;
+	
+	/**
+	 * Binary exponent of the counts above which they are scaled down, and the positions between
+	 * two checks: the counts at most double at every position, so a prefix times a suffix stays finite
+	 */
+	private static final int SCALE_EXPONENT = 256;
+	private static final int SCALE_INTERVAL = 128;
+	
+	/**
+	 * The game engine
+	 */
+	private final BoardEngine engine;
+	
+	/**
+	 * The board store of the engine
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * Time budget of a computation in nanoseconds
+	 */
+	private final long budget;
+	
+	/**
+	 * Maximum number of states of the exact count of a component (0 to use the time budget)
+	 */
+	private final long states;
+	
+	/**
+	 * If the components are solved in parallel (in the common pool)
+	 */
+	private final boolean parallel;
+	
+	/**
+	 * The frontier index of the engine
+	 */
+	private final FrontierIndex frontier;
+	
+	/**
+	 * Mine probability of the frontier cells of the last computation (NaN for the other cells),
+	 * the other hidden cells have the interior probability
+	 */
+	private final float probabilities[];
+	private float interiorProbability;
+	
+	/**
+	 * Frontier variable of every cell (-1 when the cell is not on the frontier)
+	 */
+	private final int variable[];
+	
+	/**
+	 * Numbers next to the frontier and the flag of the listed numbers
+	 */
+	private int numbers[];
+	private final boolean listed[];
+	
+	/**
+	 * Components of the last computation
+	 */
+	private List<Component> components;
+	
+	/**
+	 * Memoised components results (least recently used order)
+	 */
+	private final Map<ComponentKey, ComponentResult> cache;
+	
+	/**
+	 * If the last computation was exact
+	 */
+	private boolean exact;
+	
+	/**
+	 * The hidden (not flagged) cell with the lowest mine probability
+	 */
+	private int safest;
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 * @param budget The time budget of a computation in nanoseconds
+	 */
+	public ProbabilityEngine(BoardEngine engine, long budget) { this(engine, budget, true); }
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 * @param budget The time budget of a computation in nanoseconds
+	 * @param parallel True to solve the components in parallel, false when the caller is already a parallel worker
+	 */
+	public ProbabilityEngine(BoardEngine engine, long budget, boolean parallel) { this(engine, budget, parallel, 0); }
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 * @param budget The time budget of a computation in nanoseconds (not used with a states limit)
+	 * @param parallel True to solve the components in parallel, false when the caller is already a parallel worker
+	 * @param states The maximum number of states of the exact count of a component, 0 to use the time budget
+	 */
+	public ProbabilityEngine(BoardEngine engine, long budget, boolean parallel, long states)
+	{
+		//I expect the engine not null
+		if(engine == null)
+		{
+			throw new NullPointerException("Error engine null pointer [ProbabilityEngine]");
+		}
+		
+		this.engine = engine;
+		this.budget = budget > 0 ? budget : 50_000_000;
+		this.parallel = parallel;
+		this.states = states > 0 ? states : 0;
+		store = engine.getStore();
+		frontier = engine.getFrontier();
+		
+		//Instance the arrays
+		probabilities 	= new float[store.getSize()];
+		variable 		= new int[store.getSize()];
+		numbers 		= new int[64];
+		listed 			= new boolean[store.getSize()];
+		components 		= new ArrayList<Component>();
+		Arrays.fill(probabilities, Float.NaN);
+		Arrays.fill(variable, -1);
+		
+		cache = new LinkedHashMap<ComponentKey, ComponentResult>(64, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ComponentKey, ComponentResult> eldest) { return size() > CACHE_SIZE; }
+		};
+		
+		exact 	= false;
+		safest 	= -1;
+	}
+	
+	/**
+	 * Method that computes the probabilities of the current visible board
+	 * @return If the probabilities have been computed (the game needs to be running with the mines placed)
+	 */
+	public boolean compute()
+	{
+		if(!engine.isPlaying() || !engine.isGenerated()) { return false; }
+		
+		//The exact counts have three quarters of the budget, the estimates end with the budget
+		//(with a states limit there is no time limit)
+		long start = System.nanoTime();
+		long exactDeadline 	= states > 0 ? Long.MAX_VALUE : start + budget - budget / 4;
+		long deadline 		= states > 0 ? Long.MAX_VALUE : start + budget;
+		
+		//The probabilities of the previous frontier are not valid anymore
+		for(Component component : components)
+		{
+			for(int index : component.vars)
+			{
+				probabilities[index] = Float.NaN;
+			}
+		}
+		
+		//Build the frontier components
+		components = buildComponents();
+		
+		//The hidden cells that are not on the frontier, from the counts of the index
+		int variables = 0;
+		for(Component component : components)
+		{
+			variables += component.vars.length;
+		}
+		int interior = frontier.getHiddenCount() - variables;
+		
+		//Solve the components that are not memoised (in parallel if enabled)
+		solveComponents(components, exactDeadline, deadline);
+		
+		exact = true;
+		for(Component component : components)
+		{
+			exact &= component.result.exact;
+		}
+		
+		combine(components, interior, engine.getBombsNumber());
+		
+		//Free the frontier variables
+		for(Component component : components)
+		{
+			for(int index : component.vars)
+			{
+				variable[index] = -1;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Method that finds the frontier constraints and splits them into independent components
+	 * @return The components
+	 */
+	private List<Component> buildComponents()
+	{
+		int height = store.getHeight();
+		int width = store.getWidth();
+		
+		//Frontier variables and union find parents
+		int vars[] = new int[64];
+		int parent[] = new int[64];
+		int count = 0;
+		
+		//The numbers next to the frontier cells, each one listed once
+		int numberCount = 0;
+		for(int k = 0; k < frontier.size(); k++)
+		{
+			int i = frontier.get(k) / height;
+			int j = frontier.get(k) - i * height;
+			
+			for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, width - 1); ni++)
+			{
+				for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+				{
+					int neighbour = ni * height + nj;
+					
+					if(!isNumber(store.getStateOrdinal(neighbour)) || listed[neighbour]) { continue; }
+					
+					if(numberCount == numbers.length) { numbers = Arrays.copyOf(numbers, numberCount * 2); }
+					
+					listed[neighbour] = true;
+					numbers[numberCount++] = neighbour;
+				}
+			}
+		}
+		
+		//In board order, so the variables and the memoisation keys do not depend on the frontier order
+		Arrays.sort(numbers, 0, numberCount);
+		
+		//Constraints: the numbers with hidden neighbours
+		int constraints = 0;
+		
+		for(int n = 0; n < numberCount; n++)
+		{
+			int index = numbers[n];
+			listed[index] = false;
+			
+			int i = index / height;
+			int j = index - i * height;
+			int first = -1;
+			
+			for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, width - 1); ni++)
+			{
+				for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+				{
+					int neighbour = ni * height + nj;
+					
+					if(!isHidden(store.getStateOrdinal(neighbour))) { continue; }
+					
+					//New frontier variable
+					if(variable[neighbour] == -1)
+					{
+						if(count == vars.length)
+						{
+							vars 	= Arrays.copyOf(vars, count * 2);
+							parent 	= Arrays.copyOf(parent, count * 2);
+						}
+						
+						variable[neighbour] = count;
+						vars[count] = neighbour;
+						parent[count] = count;
+						count++;
+					}
+					
+					//All the variables of the same number are in the same component
+					if(first == -1) { first = variable[neighbour]; }
+					else 			{ union(parent, first, variable[neighbour]); }
+				}
+			}
+			
+			//A number with hidden neighbours is a constraint
+			if(first != -1) { numbers[constraints++] = index; }
+		}
+		
+		//Group the variables by root, in frontier order
+		int componentOf[] = new int[count];
+		List<Component> components = new ArrayList<Component>();
+		List<int[]> componentVars = new ArrayList<int[]>();
+		int sizes[] = new int[count];
+		
+		Arrays.fill(componentOf, -1);
+		for(int v = 0; v < count; v++)
+		{
+			int root = find(parent, v);
+			
+			if(componentOf[root] == -1)
+			{
+				componentOf[root] = componentVars.size();
+				componentVars.add(new int[8]);
+			}
+			
+			int c = componentOf[root];
+			int list[] = componentVars.get(c);
+			if(sizes[c] == list.length)
+			{
+				list = Arrays.copyOf(list, sizes[c] * 2);
+				componentVars.set(c, list);
+			}
+			list[sizes[c]++] = v;
+		}
+		
+		//Group the constraints by component
+		List<List<Integer>> componentNumbers = new ArrayList<List<Integer>>();
+		for(int c = 0; c < componentVars.size(); c++)
+		{
+			componentNumbers.add(new ArrayList<Integer>());
+		}
+		for(int k = 0; k < constraints; k++)
+		{
+			int first = firstHiddenNeighbour(numbers[k]);
+			componentNumbers.get(componentOf[find(parent, variable[first])]).add(numbers[k]);
+		}
+		
+		for(int c = 0; c < componentVars.size(); c++)
+		{
+			components.add(new Component(Arrays.copyOf(componentVars.get(c), sizes[c]), vars, componentNumbers.get(c)));
+		}
+		
+		return components;
+	}
+	
+	/**
+	 * Method that solves (or takes from the memoised ones) the components results
+	 * @param components The components
+	 * @param exactDeadline The time limit of the exact counts
+	 * @param deadline The time limit of the estimates
+	 */
+	private void solveComponents(List<Component> components, long exactDeadline, long deadline)
+	{
+		List<Callable<ComponentResult>> tasks = new ArrayList<Callable<ComponentResult>>();
+		List<Component> solving = new ArrayList<Component>();
+		
+		for(Component component : components)
+		{
+			component.result = cache.get(component.key);
+			
+			if(component.result == null)
+			{
+				solving.add(component);
+				tasks.add(() -> solve(component, exactDeadline, deadline, states > 0 ? states : Long.MAX_VALUE));
+			}
+		}
+		
+		if(tasks.isEmpty()) { return; }
+		
+		try
+		{
+			List<ComponentResult> results = new ArrayList<ComponentResult>(tasks.size());
+			if(parallel)
+			{
+				for(Future<ComponentResult> result : ForkJoinPool.commonPool().invokeAll(tasks)) { results.add(result.get()); }
+			}
+			else
+			{
+				for(Callable<ComponentResult> task : tasks) { results.add(task.call()); }
+			}
+			
+			for(int k = 0; k < solving.size(); k++)
+			{
+				Component component = solving.get(k);
+				component.result = results.get(k);
+				
+				//Only the exact results can be reused
+				if(component.result.exact)
+				{
+					cache.put(component.key, component.result);
+				}
+			}
+		}
+		catch(Exception e)
+		{
+			throw new RuntimeException("Failed solving the frontier components [ProbabilityEngine]", e);
+		}
+	}
+	
+	/**
+	 * Method that counts the consistent assignments of a component by number of mines
+	 * @param component The component
+	 * @param exactDeadline The time limit of the exact count
+	 * @param deadline The time limit of the estimate
+	 * @param limit The maximum number of states of the exact count
+	 * @return The component result
+	 */
+	private static ComponentResult solve(Component component, long exactDeadline, long deadline, long limit)
+	{
+		Enumeration enumeration = new Enumeration(component, limit);
+		long start = System.nanoTime();
+		
+		//Exact count
+		ComponentResult result = enumeration.count(exactDeadline, Integer.MAX_VALUE);
+		if(result != null) { return result; }
+		
+		//Over the states limit the estimate would stop at once
+		if(enumeration.states > limit) { return enumeration.density(); }
+		
+		//Out of time: estimate until the end of the same budget with the states that the exact count
+		//examined at the same rate (every kept state is examined forward and backward), then the local density in any case
+		long now = System.nanoTime();
+		double rate = (double)enumeration.states / Math.max(1, now - start);
+		int width = (int)Math.min(BEAM_WIDTH, (deadline - now) * rate / (2 * component.vars.length));
+		
+		result = width > 0 ? enumeration.count(deadline, width) : null;
+		if(result != null) { return result; }
+		
+		return enumeration.density();
+	}
+	
+	/**
+	 * Method that combines the components with the interior cells and fills the probabilities
+	 * @param components The solved components
+	 * @param interior The number of hidden cells outside the frontier
+	 * @param mines The total number of mines
+	 */
+	private void combine(List<Component> components, int interior, int mines)
+	{
+		int k = components.size();
+		
+		//Prefix and suffix convolutions of the normalised mines distributions
+		double prefix[][] = new double[k + 1][];
+		double suffix[][] = new double[k + 1][];
+		prefix[0] = new double[] {1};
+		suffix[k] = new double[] {1};
+		for(int c = 0; c < k; c++)
+		{
+			prefix[c + 1] = convolve(prefix[c], components.get(c).result.counts);
+		}
+		for(int c = k - 1; c >= 0; c--)
+		{
+			suffix[c] = convolve(components.get(c).result.counts, suffix[c + 1]);
+		}
+		
+		//Relative weights of the mines left for the interior
+		double weight[] = interiorWeights(interior, mines, prefix[k].length - 1);
+		double total[] = prefix[k];
+		
+		double normal = 0;
+		double interiorMines = 0;
+		for(int m = 0; m < total.length; m++)
+		{
+			double w = total[m] * weight[m];
+			normal += w;
+			interiorMines += w * Math.max(0, mines - m);
+		}
+		
+		//The hidden cells outside the frontier
+		interiorProbability = normal > 0 && interior > 0 ? (float)(interiorMines / normal / interior) : 0;
+		
+		//Frontier cells
+		for(int c = 0; c < k; c++)
+		{
+			Component component = components.get(c);
+			ComponentResult result = component.result;
+			double others[] = convolve(prefix[c], suffix[c + 1]);
+			double cells[] = new double[component.vars.length];
+			double componentNormal = 0;
+			
+			for(int m = 0; m < result.counts.length; m++)
+			{
+				if(result.cells[m] == null) { continue; }
+				
+				//Weight of the component having m mines (the other components and the interior)
+				double g = 0;
+				for(int r = 0; r < others.length; r++)
+				{
+					g += others[r] * weight[m + r];
+				}
+				
+				componentNormal += result.counts[m] * g;
+				for(int v = 0; v < cells.length; v++)
+				{
+					cells[v] += result.cells[m][v] * g;
+				}
+			}
+			
+			for(int v = 0; v < cells.length; v++)
+			{
+				//An estimate without assignments says nothing about the cells
+				probabilities[component.vars[v]] = componentNormal > 0 ? (float)(cells[v] / componentNormal) : interiorProbability;
+			}
+		}
+		
+		//The safest frontier cell that the player can reveal (the first one in board order)
+		safest = -1;
+		for(Component component : components)
+		{
+			for(int index : component.vars)
+			{
+				if(store.getStateOrdinal(index) == HIDDEN && (safest == -1 || probabilities[index] < probabilities[safest] ||
+				  (probabilities[index] == probabilities[safest] && index < safest)))
+				{
+					safest = index;
+				}
+			}
+		}
+		
+		//The first interior cell when it can be better, the search ends there
+		if(interior > 0 && (safest == -1 || interiorProbability <= probabilities[safest]))
+		{
+			for(int index = 0; index < store.getSize() && (safest == -1 || index < safest || interiorProbability < probabilities[safest]); index++)
+			{
+				if(store.getStateOrdinal(index) == HIDDEN && variable[index] == -1)
+				{
+					safest = index;
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Method that computes the relative number of ways to place the mines left in the interior
+	 * @param interior The number of interior cells
+	 * @param mines The total number of mines
+	 * @param maxFrontier The maximum number of frontier mines
+	 * @return The weights indexed by frontier mines
+	 */
+	private static double[] interiorWeights(int interior, int mines, int maxFrontier)
+	{
+		double weight[] = new double[maxFrontier + 1];
+		double log[] = new double[maxFrontier + 1];
+		double max = Double.NEGATIVE_INFINITY;
+		
+		//log C(interior, mines - m) up to a constant, from the previous one: C(n, r) = C(n, r + 1) (r + 1) / (n - r)
+		boolean first = true;
+		double current = 0;
+		for(int m = 0; m <= maxFrontier; m++)
+		{
+			int r = mines - m;
+			
+			if(r < 0 || r > interior)
+			{
+				log[m] = Double.NEGATIVE_INFINITY;
+				continue;
+			}
+			
+			if(!first) { current += Math.log(r + 1) - Math.log(interior - r); }
+			first = false;
+			
+			log[m] = current;
+			max = Math.max(max, log[m]);
+		}
+		
+		for(int m = 0; m <= maxFrontier; m++)
+		{
+			weight[m] = max == Double.NEGATIVE_INFINITY ? 0 : Math.exp(log[m] - max);
+		}
+		
+		return weight;
+	}
+	
+	/**
+	 * Method that convolves two mines distributions and normalises the result to its maximum
+	 */
+	private static double[] convolve(double a[], double b[])
+	{
+		double result[] = new double[a.length + b.length - 1];
+		double max = 0;
+		
+		for(int x = 0; x < a.length; x++)
+		{
+			if(a[x] == 0) { continue; }
+			
+			for(int y = 0; y < b.length; y++)
+			{
+				result[x + y] += a[x] * b[y];
+			}
+		}
+		
+		for(double value : result) { max = Math.max(max, value); }
+		if(max > 0)
+		{
+			for(int m = 0; m < result.length; m++) { result[m] /= max; }
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @return The first hidden neighbour of a number
+	 */
+	private int firstHiddenNeighbour(int index)
+	{
+		int height = store.getHeight();
+		int i = index / height;
+		int j = index - i * height;
+		
+		for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, store.getWidth() - 1); ni++)
+		{
+			for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+			{
+				if(isHidden(store.getStateOrdinal(ni * height + nj))) { return ni * height + nj; }
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Union find root with path halving
+	 */
+	private static int find(int parent[], int v)
+	{
+		while(parent[v] != v)
+		{
+			parent[v] = parent[parent[v]];
+			v = parent[v];
+		}
+		
+		return v;
+	}
+	
+	/**
+	 * Union find merge
+	 */
+	private static void union(int parent[], int a, int b)
+	{
+		int rootA = find(parent, a);
+		int rootB = find(parent, b);
+		
+		if(rootA != rootB) { parent[rootB] = rootA; }
+	}
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The mine probability of the cell (NaN if it is revealed)
+	 */
+	public double getProbability(int index)
+	{
+		if(!Float.isNaN(probabilities[index])) { return probabilities[index]; }
+		
+		return isHidden(store.getStateOrdinal(index)) ? interiorProbability : Float.NaN;
+	}
+	
+	/**
+	 * @return The mine probability of the hidden cells outside the frontier
+	 */
+	public double getInteriorProbability() { return interiorProbability; }
+	
+	/**
+	 * @return The hidden (not flagged) cell with the lowest mine probability, -1 if none
+	 */
+	public int getSafestCell() { return safest; }
+	
+	/**
+	 * @return If the last computation was exact (false if a component was approximated)
+	 */
+	public boolean isExact() { return exact; }
+	
+	/**
+	 * @param state The visible state ordinal
+	 * @return If the cell is hidden for the solver (flags are not trusted)
+	 */
+	private static boolean isHidden(int state) { return state == HIDDEN || state == FLAG; }
+	
+	/**
+	 * @param state The visible state ordinal
+	 * @return If the state is a revealed number
+	 */
+	private boolean isNumber(int state) { return state >= CELL_1 && state <= CELL_8; }
+	
+	/**
+	 * Independent part of the frontier: its variables and the numbers that constrain them
+	 * @author Matteo Pignataro
+	 */
+	private class Component
+	{
+		/**
+		 * Linear indices of the variables
+		 */
+		final int vars[];
+		
+		/**
+		 * Mines around every number
+		 */
+		final int mines[];
+		
+		/**
+		 * Local variables of every number
+		 */
+		final int numberVars[][];
+		
+		/**
+		 * Numbers of every local variable
+		 */
+		final int varNumbers[][];
+		
+		/**
+		 * Variables after every local variable around each of its numbers (same order of varNumbers)
+		 */
+		final int varAfter[][];
+		
+		/**
+		 * Numbers with variables both before and after every position (the open numbers)
+		 */
+		final int active[][];
+		
+		/**
+		 * Memoisation key
+		 */
+		final ComponentKey key;
+		
+		/**
+		 * The solved result
+		 */
+		ComponentResult result;
+		
+		/**
+		 * Constructor
+		 * @param ids The frontier variables of the component
+		 * @param frontier The linear index of every frontier variable
+		 * @param numbers The numbers of the component
+		 */
+		Component(int ids[], int frontier[], List<Integer> numbers)
+		{
+			int height = store.getHeight();
+			
+			//Local variables in frontier order (near cells are near in the enumeration)
+			vars = new int[ids.length];
+			for(int v = 0; v < ids.length; v++)
+			{
+				vars[v] = frontier[ids[v]];
+			}
+			
+			mines 		= new int[numbers.size()];
+			numberVars 	= new int[numbers.size()][];
+			int counts[] = new int[vars.length];
+			int key[] = new int[2 + vars.length + numbers.size() * 2];
+			int k = 0;
+			
+			key[k++] = vars.length;
+			for(int v = 0; v < vars.length; v++) { key[k++] = vars[v]; }
+			key[k++] = numbers.size();
+			
+			for(int n = 0; n < numbers.size(); n++)
+			{
+				int index = numbers.get(n);
+				int i = index / height;
+				int j = index - i * height;
+				int list[] = new int[8];
+				int size = 0;
+				
+				for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, store.getWidth() - 1); ni++)
+				{
+					for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+					{
+						int neighbour = ni * height + nj;
+						
+						if(isHidden(store.getStateOrdinal(neighbour)))
+						{
+							int v = Arrays.binarySearch(ids, variable[neighbour]);
+							list[size++] = v;
+							counts[v]++;
+						}
+					}
+				}
+				
+				mines[n] 		= store.getStateOrdinal(index) - 1;
+				numberVars[n] 	= Arrays.copyOf(list, size);
+				Arrays.sort(numberVars[n]);
+				key[k++] 		= index;
+				key[k++] 		= mines[n];
+			}
+			
+			//Numbers of every variable and the variables left after it around them
+			varNumbers 	= new int[vars.length][];
+			varAfter 	= new int[vars.length][];
+			for(int v = 0; v < vars.length; v++)
+			{
+				varNumbers[v] 	= new int[counts[v]];
+				varAfter[v] 	= new int[counts[v]];
+			}
+			for(int n = 0; n < numberVars.length; n++)
+			{
+				for(int position = 0; position < numberVars[n].length; position++)
+				{
+					int v = numberVars[n][position];
+					
+					counts[v]--;
+					varNumbers[v][counts[v]] 	= n;
+					varAfter[v][counts[v]] 		= numberVars[n].length - 1 - position;
+				}
+			}
+			
+			//Open numbers of every position: the ones of the previous position without the
+			//numbers closed by its variable, and the numbers opened by it
+			active = new int[vars.length + 1][];
+			active[0] = new int[0];
+			for(int v = 0; v < vars.length; v++)
+			{
+				int list[] = Arrays.copyOf(active[v], active[v].length + varNumbers[v].length);
+				int size = 0;
+				
+				for(int n : active[v])
+				{
+					if(numberVars[n][numberVars[n].length - 1] != v) { list[size++] = n; }
+				}
+				for(int n : varNumbers[v])
+				{
+					if(numberVars[n][0] == v && numberVars[n].length > 1) { list[size++] = n; }
+				}
+				
+				active[v + 1] = Arrays.copyOf(list, size);
+			}
+			
+			this.key = new ComponentKey(key);
+		}
+	}
+	
+	/**
+	 * Counts of the consistent assignments of a component, in the order of its variables.
+	 * After the first v variables the rest of an assignment only depends on the mines placed
+	 * around the open numbers (the ones with variables on both sides of v), because the variables
+	 * left around every number are fixed by v. So all the partial assignments with the same open
+	 * mines are a single state: the states are expanded forward with their prefix counts by number
+	 * of mines, then the suffix counts of every state (the memoised sub-results) are computed backward
+	 * on the same states. A variable is a mine in (prefix counts of a state) x (suffix counts after it).
+	 * @author Matteo Pignataro
+	 */
+	private static class Enumeration
+	{
+		final Component component;
+		
+		/**
+		 * Mines placed around every number by the examined assignment
+		 */
+		final int placed[];
+		
+		/**
+		 * States since the last time check, all the examined ones and their maximum
+		 */
+		int nodes;
+		long states;
+		final long limit;
+		
+		Enumeration(Component component, long limit)
+		{
+			this.component 	= component;
+			this.limit 		= limit;
+			placed 			= new int[component.mines.length];
+		}
+		
+		/**
+		 * Method that counts the consistent assignments (exactly if no state is dropped)
+		 * @param deadline The time limit
+		 * @param width The maximum number of states of a position, the lightest ones are dropped
+		 * @return The result or null if the time expired (or all the kept states were dropped)
+		 */
+		ComponentResult count(long deadline, int width)
+		{
+			boolean pruned = false;
+			int length = component.vars.length;
+			
+			//Prefix counts (by mines before the position) of the states of every position, and their binary scale
+			List<Map<ComponentKey, Counts>> prefix = new ArrayList<Map<ComponentKey, Counts>>(length + 1);
+			int prefixScale[] = new int[length + 1];
+			
+			prefix.add(new HashMap<ComponentKey, Counts>());
+			prefix.get(0).put(key(0), new Counts(1));
+			
+			for(int v = 0; v < length; v++)
+			{
+				Map<ComponentKey, Counts> next = new HashMap<ComponentKey, Counts>();
+				
+				for(Map.Entry<ComponentKey, Counts> state : prefix.get(v).entrySet())
+				{
+					if(isExpired(deadline)) { return null; }
+					
+					load(v, state.getKey());
+					for(int value = 0; value <= 1; value++)
+					{
+						if(assign(v, value))
+						{
+							//Same open mines: the counts are merged
+							ComponentKey key = key(v + 1);
+							Counts counts = next.get(key);
+							if(counts == null)
+							{
+								counts = new Counts();
+								next.put(key, counts);
+							}
+							
+							counts.add(state.getValue(), value);
+						}
+						unassign(v, value);
+					}
+					unload(v);
+				}
+				
+				if(next.size() > width)
+				{
+					next = prune(next, width);
+					pruned = true;
+				}
+				
+				prefixScale[v + 1] = prefixScale[v] + ((v + 1) % SCALE_INTERVAL == 0 ? scale(next.values()) : 0);
+				prefix.add(next);
+			}
+			
+			//Suffix counts (by mines from the position on) of the states of the next position, and their binary scale
+			Map<ComponentKey, Counts> suffix = new HashMap<ComponentKey, Counts>();
+			int suffixScale = 0;
+			suffix.put(key(length), new Counts(1));
+			
+			ComponentResult result = new ComponentResult(length);
+			int cellScale[] = new int[length];
+			
+			for(int v = length - 1; v >= 0; v--)
+			{
+				Map<ComponentKey, Counts> current = new HashMap<ComponentKey, Counts>();
+				
+				//Prefix counts with the variable as a mine, merged by the state after it
+				Map<ComponentKey, Counts> mine = new HashMap<ComponentKey, Counts>();
+				
+				for(Map.Entry<ComponentKey, Counts> state : prefix.get(v).entrySet())
+				{
+					if(isExpired(deadline)) { return null; }
+					
+					Counts counts = new Counts();
+					
+					load(v, state.getKey());
+					for(int value = 0; value <= 1; value++)
+					{
+						if(assign(v, value))
+						{
+							ComponentKey key = key(v + 1);
+							Counts after = suffix.get(key);
+							
+							//Dropped state
+							if(after == null)
+							{
+								unassign(v, value);
+								continue;
+							}
+							
+							counts.add(after, value);
+							
+							if(value == 1) { mine.computeIfAbsent(key, k -> new Counts()).add(state.getValue(), 1); }
+						}
+						unassign(v, value);
+					}
+					unload(v);
+					
+					current.put(state.getKey(), counts);
+				}
+				
+				//The assignments where the variable is a mine
+				for(Map.Entry<ComponentKey, Counts> state : mine.entrySet())
+				{
+					result.addMine(v, state.getValue(), suffix.get(state.getKey()));
+				}
+				
+				cellScale[v] = prefixScale[v] + suffixScale;
+				suffixScale += v % SCALE_INTERVAL == 0 ? scale(current.values()) : 0;
+				suffix = current;
+				
+				//The prefix counts of the position are not needed anymore
+				prefix.set(v, null);
+			}
+			
+			//A single state before the first variable: all the counts of the component
+			Counts total = suffix.get(key(0));
+			if(total.isEmpty()) { return null; }
+			
+			result.setCounts(total.toArray(length + 1));
+			result.rescale(cellScale, suffixScale);
+			result.exact = !pruned;
+			
+			return result;
+		}
+		
+		/**
+		 * Method that estimates every variable with the mean density of the mines of its numbers,
+		 * all in the single assignment with the expected number of mines
+		 * @return The estimated result
+		 */
+		ComponentResult density()
+		{
+			int length = component.vars.length;
+			ComponentResult result = new ComponentResult(length);
+			double density[] = new double[length];
+			double mines = 0;
+			
+			for(int v = 0; v < length; v++)
+			{
+				for(int n : component.varNumbers[v])
+				{
+					density[v] += (double)component.mines[n] / component.numberVars[n].length;
+				}
+				
+				density[v] /= component.varNumbers[v].length;
+				mines += density[v];
+			}
+			
+			int expected = (int)Math.round(mines);
+			result.setCounts(new double[length + 1]);
+			result.counts[expected] = 1;
+			result.cells[expected] = density;
+			result.exact = false;
+			
+			return result;
+		}
+		
+		/**
+		 * Method that keeps the heaviest states of a position
+		 * @param states The states with their prefix counts
+		 * @param width The number of states kept
+		 * @return The kept states
+		 */
+		private static Map<ComponentKey, Counts> prune(Map<ComponentKey, Counts> states, int width)
+		{
+			List<Map.Entry<ComponentKey, Counts>> entries = new ArrayList<Map.Entry<ComponentKey, Counts>>(states.entrySet());
+			double totals[] = new double[entries.size()];
+			Integer order[] = new Integer[entries.size()];
+			
+			for(int k = 0; k < entries.size(); k++)
+			{
+				totals[k] = entries.get(k).getValue().total();
+				order[k] = k;
+			}
+			
+			Arrays.sort(order, (a, b) -> Double.compare(totals[b], totals[a]));
+			
+			Map<ComponentKey, Counts> kept = new HashMap<ComponentKey, Counts>();
+			for(int k = 0; k < width; k++)
+			{
+				Map.Entry<ComponentKey, Counts> entry = entries.get(order[k]);
+				kept.put(entry.getKey(), entry.getValue());
+			}
+			
+			return kept;
+		}
+		
+		/**
+		 * @return If the states limit has been passed or the deadline expired (checked every CHECK_INTERVAL states)
+		 */
+		private boolean isExpired(long deadline)
+		{
+			if(++states > limit) { return true; }
+			if(++nodes < CHECK_INTERVAL) { return false; }
+			
+			nodes = 0;
+			return System.nanoTime() > deadline;
+		}
+		
+		/**
+		 * @return The key of the open mines of a position
+		 */
+		private ComponentKey key(int v)
+		{
+			int active[] = component.active[v];
+			int data[] = new int[active.length];
+			
+			for(int k = 0; k < active.length; k++)
+			{
+				data[k] = placed[active[k]];
+			}
+			
+			return new ComponentKey(data);
+		}
+		
+		/**
+		 * Method that sets the open mines of a position from its key
+		 */
+		private void load(int v, ComponentKey key)
+		{
+			int active[] = component.active[v];
+			
+			for(int k = 0; k < active.length; k++)
+			{
+				placed[active[k]] = key.data[k];
+			}
+		}
+		
+		/**
+		 * Method that clears the open mines of a position
+		 */
+		private void unload(int v)
+		{
+			for(int n : component.active[v])
+			{
+				placed[n] = 0;
+			}
+		}
+		
+		/**
+		 * Method that assigns a variable
+		 * @return If all its numbers are still satisfiable
+		 */
+		private boolean assign(int v, int value)
+		{
+			boolean consistent = true;
+			int numbers[] = component.varNumbers[v];
+			
+			for(int k = 0; k < numbers.length; k++)
+			{
+				int n = numbers[k];
+				placed[n] += value;
+				
+				consistent &= placed[n] <= component.mines[n] && placed[n] + component.varAfter[v][k] >= component.mines[n];
+			}
+			
+			return consistent;
+		}
+		
+		/**
+		 * Method that removes the assignment of a variable
+		 */
+		private void unassign(int v, int value)
+		{
+			for(int n : component.varNumbers[v])
+			{
+				placed[n] -= value;
+			}
+		}
+		
+		/**
+		 * Method that scales down the counts of a position when they are too large
+		 * @return The binary exponent removed from the counts
+		 */
+		private static int scale(Collection<Counts> states)
+		{
+			double max = 0;
+			for(Counts counts : states)
+			{
+				for(double count : counts.values) { max = Math.max(max, count); }
+			}
+			
+			if(max == 0 || Math.getExponent(max) < SCALE_EXPONENT) { return 0; }
+			
+			int exponent = Math.getExponent(max);
+			for(Counts counts : states)
+			{
+				for(int m = 0; m < counts.values.length; m++) { counts.values[m] = Math.scalb(counts.values[m], -exponent); }
+			}
+			
+			return exponent;
+		}
+	}
+	
+	/**
+	 * Number of consistent assignments of a component by number of mines, and the number
+	 * of them where every variable is a mine (all the counts can share a common factor).
+	 * @author Matteo Pignataro
+	 */
+	private static class ComponentResult
+	{
+		double counts[];
+		double cells[][];
+		boolean exact;
+		
+		ComponentResult(int vars)
+		{
+			counts 	= new double[vars + 1];
+			cells 	= new double[vars + 1][];
+		}
+		
+		/**
+		 * Method that counts the assignments where a variable is a mine: every prefix
+		 * with p mines (the variable included) and every suffix with q mines make p + q mines
+		 * @param v The variable
+		 * @param prefix The prefix counts up to the variable of a state after it
+		 * @param suffix The suffix counts of the same state
+		 */
+		void addMine(int v, Counts prefix, Counts suffix)
+		{
+			for(int p = 0; p < prefix.values.length; p++)
+			{
+				if(prefix.values[p] == 0) { continue; }
+				
+				for(int q = 0; q < suffix.values.length; q++)
+				{
+					int m = prefix.low + p + suffix.low + q;
+					
+					if(cells[m] == null) { cells[m] = new double[counts.length - 1]; }
+					cells[m][v] += prefix.values[p] * suffix.values[q];
+				}
+			}
+		}
+		
+		/**
+		 * Method that sets the counts, every number of mines with assignments gets its cells
+		 */
+		void setCounts(double total[])
+		{
+			counts = total;
+			
+			for(int m = 0; m < counts.length; m++)
+			{
+				if(counts[m] > 0 && cells[m] == null) { cells[m] = new double[counts.length - 1]; }
+			}
+		}
+		
+		/**
+		 * Method that brings the cells of every variable to the binary scale of the counts
+		 * @param cellScale The binary scale of the cells of every variable
+		 * @param countScale The binary scale of the counts
+		 */
+		void rescale(int cellScale[], int countScale)
+		{
+			for(double mines[] : cells)
+			{
+				if(mines == null) { continue; }
+				
+				for(int v = 0; v < mines.length; v++) { mines[v] = Math.scalb(mines[v], cellScale[v] - countScale); }
+			}
+		}
+	}
+	
+	/**
+	 * Assignments counts by number of mines, stored only in the range of the mines with assignments
+	 * @author Matteo Pignataro
+	 */
+	private static class Counts
+	{
+		/**
+		 * Number of mines of the first count
+		 */
+		int low;
+		double values[];
+		
+		Counts()
+		{
+			values = new double[0];
+		}
+		
+		Counts(double count)
+		{
+			values = new double[] {count};
+		}
+		
+		/**
+		 * Method that adds other counts shifted by the mines of a variable
+		 */
+		void add(Counts added, int shift)
+		{
+			int from = added.low + shift;
+			
+			if(values.length == 0)
+			{
+				low 	= from;
+				values 	= added.values.clone();
+				return;
+			}
+			
+			//The range grows to contain the added counts
+			int newLow 	= Math.min(low, from);
+			int newHigh = Math.max(low + values.length, from + added.values.length);
+			if(newLow != low || newHigh != low + values.length)
+			{
+				double grown[] = new double[newHigh - newLow];
+				System.arraycopy(values, 0, grown, low - newLow, values.length);
+				values 	= grown;
+				low 	= newLow;
+			}
+			
+			for(int m = 0; m < added.values.length; m++)
+			{
+				values[from - low + m] += added.values[m];
+			}
+		}
+		
+		/**
+		 * @return The sum of the counts
+		 */
+		double total()
+		{
+			double total = 0;
+			for(double count : values) { total += count; }
+			
+			return total;
+		}
+		
+		/**
+		 * @return If there are no assignments
+		 */
+		boolean isEmpty() { return total() == 0; }
+		
+		/**
+		 * @return The counts indexed by number of mines
+		 */
+		double[] toArray(int length)
+		{
+			double array[] = new double[length];
+			System.arraycopy(values, 0, array, low, values.length);
+			
+			return array;
+		}
+	}
+	
+	/**
+	 * Memoisation key: the variables and the numbers of a component, or the open mines of a state
+	 * @author Matteo Pignataro
+	 */
+	private static class ComponentKey
+	{
+		final int data[];
+		final int hash;
+		
+		ComponentKey(int data[])
+		{
+			this.data = data;
+			hash = Arrays.hashCode(data);
+		}
+		
+		@Override
+		public int hashCode() { return hash; }
+		
+		@Override
+		public boolean equals(Object other) { return other instanceof ComponentKey && Arrays.equals(data, ((ComponentKey) other).data); }
+	}
+}
@@ -0,0 +1,407 @@
+package game.minesweeper.game.solver;
+
+import java.util.Arrays;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.ChangeListener;
+import game.minesweeper.game.board.ChangeSet;
+import game.minesweeper.game.board.FrontierIndex;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Constraint propagation solver. Every revealed number is a constraint over its hidden
+ * neighbours and two rules are applied:
+ * - single point: if the mines left around a number are 0 all its unknown neighbours are safe,
+ *   if they are as many as the unknown neighbours they are all mines
+ * - subset: if the unknown neighbours of a number are a subset of the ones of another number
+ *   (at most two cells away), the difference holds the difference of the mines left
+ * The solver is incremental: it listens to the engine changes and only re-examines the
+ * numbers near the changed cells (and near the new deductions), the deductions are kept
+ * between the calls.
+ * @author Matteo Pignataro
+ */
+public class RuleSolver implements Solver, ChangeListener
+{
+	/**
+	 * States ordinals used in the hot loops
+	 */
+	private static final int HIDDEN = CellState.CELL_HIDDEN.ordinal();
+	private static final int FLAG 	= CellState.FLAG.ordinal();
+	private static final int CELL_1 = CellState.CELL_1.ordinal();
+	private static final int CELL_8 = CellState.CELL_8.ordinal();
+	
+	/**
+	 * Deduction values of a cell
+	 */
+	private static final byte UNKNOWN 	= 0;
+	private static final byte SAFE 		= 1;
+	private static final byte MINE 		= 2;
+	
+	/**
+	 * The board store of the engine
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * Deduction of every cell
+	 */
+	private final byte known[];
+	
+	/**
+	 * Numbers waiting to be examined (stack) and the flag of the queued ones
+	 */
+	private int queue[];
+	private int queueSize;
+	private final boolean queued[];
+	
+	/**
+	 * Deduced cells not acted upon yet
+	 */
+	private int safeList[];
+	private int safeSize;
+	private int mineList[];
+	private int mineSize;
+	
+	/**
+	 * Unknown neighbours of the two examined numbers
+	 */
+	private final int unknownA[];
+	private final int unknownB[];
+	
+	/**
+	 * Mines left around the last number passed to unknowns
+	 */
+	private int remaining;
+	
+	/**
+	 * Constructor: the solver registers itself as listener of the engine
+	 * @param engine The game engine
+	 */
+	public RuleSolver(BoardEngine engine)
+	{
+		//I expect the engine not null
+		if(engine == null)
+		{
+			throw new NullPointerException("Error engine null pointer [RuleSolver]");
+		}
+		
+		store = engine.getStore();
+		
+		//Instance the arrays
+		known 		= new byte[store.getSize()];
+		queued 		= new boolean[store.getSize()];
+		queue 		= new int[64];
+		safeList 	= new int[64];
+		mineList 	= new int[64];
+		unknownA 	= new int[8];
+		unknownB 	= new int[8];
+		
+		//The numbers already on the board next to the frontier are all to examine (the others have no hidden cells)
+		FrontierIndex frontier = engine.getFrontier();
+		for(int k = 0; k < frontier.size(); k++)
+		{
+			enqueueNumbersNear(frontier.get(k));
+		}
+		
+		engine.addChangeListener(this);
+	}
+	
+	@Override
+	public void changed(ChangeSet changes)
+	{
+		//A reset forgets everything
+		if(changes.isReset())
+		{
+			Arrays.fill(known, UNKNOWN);
+			Arrays.fill(queued, false);
+			queueSize 	= 0;
+			safeSize 	= 0;
+			mineSize 	= 0;
+			return;
+		}
+		
+		for(int k = 0; k < changes.size(); k++)
+		{
+			int state = changes.getState(k);
+			
+			//The flags are not trusted, so they change nothing
+			if(state == HIDDEN || state == FLAG) { continue; }
+			
+			int index = changes.getIndex(k);
+			
+			//A new number is a new constraint and the near numbers lost a hidden cell
+			if(isNumber(state))
+			{
+				enqueue(index);
+			}
+			enqueueNumbersNear(index);
+		}
+	}
+	
+	@Override
+	public void solve(Deductions result)
+	{
+		result.clear();
+		
+		//Examine the numbers until nothing changes
+		while(queueSize > 0)
+		{
+			int index = queue[--queueSize];
+			queued[index] = false;
+			
+			examine(index);
+		}
+		
+		//Report the deductions on hidden cells and forget the revealed ones
+		int kept = 0;
+		for(int k = 0; k < safeSize; k++)
+		{
+			int state = store.getStateOrdinal(safeList[k]);
+			
+			if(state == HIDDEN) { result.addSafe(safeList[k]); }
+			if(state == HIDDEN || state == FLAG) { safeList[kept++] = safeList[k]; }
+		}
+		safeSize = kept;
+		
+		kept = 0;
+		for(int k = 0; k < mineSize; k++)
+		{
+			int state = store.getStateOrdinal(mineList[k]);
+			
+			if(state == HIDDEN) { result.addMine(mineList[k]); }
+			if(state == HIDDEN || state == FLAG) { mineList[kept++] = mineList[k]; }
+		}
+		mineSize = kept;
+	}
+	
+	/**
+	 * Method that applies the rules to a number
+	 * @param index The linear index of the number
+	 */
+	private void examine(int index)
+	{
+		if(!isNumber(store.getStateOrdinal(index))) { return; }
+		
+		int countA 		= unknowns(index, unknownA);
+		int remainingA 	= remaining;
+		
+		if(countA == 0) { return; }
+		
+		//Single point rule
+		if(remainingA == 0 || remainingA == countA)
+		{
+			byte value = remainingA == 0 ? SAFE : MINE;
+			
+			for(int k = 0; k < countA; k++)
+			{
+				mark(unknownA[k], value);
+			}
+			return;
+		}
+		
+		//Subset rule with the numbers at most two cells away
+		int height 	= store.getHeight();
+		int i 		= index / height;
+		int j 		= index - i * height;
+		
+		for(int ni = Math.max(i - 2, 0); ni <= Math.min(i + 2, store.getWidth() - 1); ni++)
+		{
+			for(int nj = Math.max(j - 2, 0); nj <= Math.min(j + 2, height - 1); nj++)
+			{
+				int other = ni * height + nj;
+				
+				if(other == index || !isNumber(store.getStateOrdinal(other))) { continue; }
+				
+				int countB 		= unknowns(other, unknownB);
+				int remainingB 	= remaining;
+				
+				if(countB == 0) { continue; }
+				
+				boolean found = false;
+				
+				if(contains(unknownB, countB, unknownA, countA))
+				{
+					found = markDifference(unknownB, countB, unknownA, countA, remainingB - remainingA);
+				}
+				else if(contains(unknownA, countA, unknownB, countB))
+				{
+					found = markDifference(unknownA, countA, unknownB, countB, remainingA - remainingB);
+				}
+				
+				//The unknown cells changed, i examine this number again later
+				if(found)
+				{
+					enqueue(index);
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Method that collects the unknown hidden neighbours of a number and the mines left around it
+	 * @param index The linear index of the number
+	 * @param out The array where the unknown neighbours are written
+	 * @return The number of unknown neighbours (the mines left are in remaining)
+	 */
+	private int unknowns(int index, int out[])
+	{
+		int height 	= store.getHeight();
+		int i 		= index / height;
+		int j 		= index - i * height;
+		int count 	= 0;
+		int mines 	= 0;
+		
+		for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, store.getWidth() - 1); ni++)
+		{
+			for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+			{
+				int neighbour = ni * height + nj;
+				int state = store.getStateOrdinal(neighbour);
+				
+				//Only the hidden cells count
+				if(state != HIDDEN && state != FLAG) { continue; }
+				
+				if(known[neighbour] == MINE) 			{ mines++; }
+				else if(known[neighbour] == UNKNOWN) 	{ out[count++] = neighbour; }
+			}
+		}
+		
+		remaining = store.getStateOrdinal(index) - 1 - mines;
+		return count;
+	}
+	
+	/**
+	 * Method that marks the cells of a set that are not in its subset
+	 * @param set The bigger set
+	 * @param setCount The bigger set size
+	 * @param subset The subset
+	 * @param subsetCount The subset size
+	 * @param mines The mines inside the difference
+	 * @return If something has been deduced
+	 */
+	private boolean markDifference(int set[], int setCount, int subset[], int subsetCount, int mines)
+	{
+		int difference = setCount - subsetCount;
+		
+		//Nothing to deduce
+		if(difference == 0 || (mines != 0 && mines != difference)) { return false; }
+		
+		byte value = mines == 0 ? SAFE : MINE;
+		boolean found = false;
+		
+		for(int k = 0; k < setCount; k++)
+		{
+			if(!contains(subset, subsetCount, set[k]))
+			{
+				found |= mark(set[k], value);
+			}
+		}
+		
+		return found;
+	}
+	
+	/**
+	 * Method that saves a deduction and queues the numbers near the cell
+	 * @param index The linear index of the cell
+	 * @param value SAFE or MINE
+	 * @return If the cell was unknown
+	 */
+	private boolean mark(int index, byte value)
+	{
+		if(known[index] != UNKNOWN) { return false; }
+		
+		known[index] = value;
+		
+		if(value == SAFE)
+		{
+			if(safeSize == safeList.length) { safeList = Arrays.copyOf(safeList, safeSize * 2); }
+			safeList[safeSize++] = index;
+		}
+		else
+		{
+			if(mineSize == mineList.length) { mineList = Arrays.copyOf(mineList, mineSize * 2); }
+			mineList[mineSize++] = index;
+		}
+		
+		//The numbers near the cell have one unknown cell less
+		enqueueNumbersNear(index);
+		return true;
+	}
+	
+	/**
+	 * Method that queues the numbers near a cell
+	 * @param index The linear index of the cell
+	 */
+	private void enqueueNumbersNear(int index)
+	{
+		int height 	= store.getHeight();
+		int i 		= index / height;
+		int j 		= index - i * height;
+		
+		for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, store.getWidth() - 1); ni++)
+		{
+			for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+			{
+				int neighbour = ni * height + nj;
+				
+				if(neighbour != index && isNumber(store.getStateOrdinal(neighbour)))
+				{
+					enqueue(neighbour);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Method that queues a number if it is not queued yet
+	 * @param index The linear index of the number
+	 */
+	private void enqueue(int index)
+	{
+		if(queued[index]) { return; }
+		
+		if(queueSize == queue.length)
+		{
+			queue = Arrays.copyOf(queue, queueSize * 2);
+		}
+		
+		queue[queueSize++] = index;
+		queued[index] = true;
+	}
+	
+	/**
+	 * @return If the set contains all the subset cells
+	 */
+	private static boolean contains(int set[], int setCount, int subset[], int subsetCount)
+	{
+		if(subsetCount > setCount) { return false; }
+		
+		for(int k = 0; k < subsetCount; k++)
+		{
+			if(!contains(set, setCount, subset[k])) { return false; }
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @return If the set contains the cell
+	 */
+	private static boolean contains(int set[], int setCount, int index)
+	{
+		for(int k = 0; k < setCount; k++)
+		{
+			if(set[k] == index) { return true; }
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * @param state The visible state ordinal
+	 * @return If the state is a revealed number
+	 */
+	private static boolean isNumber(int state) { return state >= CELL_1 && state <= CELL_8; }
+}
@@ -0,0 +1,17 @@
+package game.minesweeper.game.solver;
+
+/**
+ * Interface of a solver that works on the visible state of a board and finds
+ * the hidden cells that are guaranteed to be safe and the ones that are guaranteed mines.
+ * The player flags are not trusted: a flagged cell is a hidden cell for the solver.
+ * @author Matteo Pignataro
+ */
+public interface Solver
+{
+	/**
+	 * Method that finds the deductions of the current visible board
+	 * @param result Where the found cells are written (it is cleared first).
+	 * Only cells still hidden are reported, the safe ones are never flagged cells.
+	 */
+	public void solve(Deductions result);
+}
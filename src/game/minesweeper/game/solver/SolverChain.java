@@ -0,0 +1,40 @@
+package game.minesweeper.game.solver;
+
+/**
+ * Solver that asks a list of solvers in order and stops at the first one that finds
+ * something, so the cheap solvers go first and the expensive ones only run when they are stuck.
+ * @author Matteo Pignataro
+ */
+public class SolverChain implements Solver
+{
+	/**
+	 * The solvers in order
+	 */
+	private final Solver solvers[];
+	
+	/**
+	 * Constructor
+	 * @param solvers The solvers from the cheapest one
+	 */
+	public SolverChain(Solver... solvers)
+	{
+		//I expect at least a solver
+		if(solvers == null || solvers.length == 0)
+		{
+			throw new NullPointerException("Error solvers null pointer [SolverChain]");
+		}
+		
+		this.solvers = solvers.clone();
+	}
+	
+	@Override
+	public void solve(Deductions result)
+	{
+		for(Solver solver : solvers)
+		{
+			solver.solve(result);
+			
+			if(!result.isEmpty()) { return; }
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package game.minesweeper.game.solver;
+
+import game.minesweeper.game.board.BoardEngine;
+
+/**
+ * This class applies the deductions of a solver to the engine: a hint is a single
+ * guaranteed move, the auto play applies all the guaranteed moves it finds until
+ * nothing is left or the time budget expires.
+ * Before the first move it reveals the center cell, since the first reveal is always safe.
+ * With a probability engine it can also guess the cell with the lowest mine probability.
+ * @author Matteo Pignataro
+ */
+public class SolverPlayer
+{
+	/**
+	 * The game engine
+	 */
+	private final BoardEngine engine;
+	
+	/**
+	 * The solver that finds the moves
+	 */
+	private final Solver solver;
+	
+	/**
+	 * Optional probability engine for the guesses
+	 */
+	private final ProbabilityEngine probabilityEngine;
+	
+	/**
+	 * Deductions reused at every call
+	 */
+	private final Deductions deductions;
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 * @param solver The solver that finds the moves
+	 */
+	public SolverPlayer(BoardEngine engine, Solver solver) { this(engine, solver, null); }
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 * @param solver The solver that finds the moves
+	 * @param probabilityEngine The probability engine used for the guesses (can be null)
+	 */
+	public SolverPlayer(BoardEngine engine, Solver solver, ProbabilityEngine probabilityEngine)
+	{
+		//I expect engine and solver not null
+		if(engine == null || solver == null)
+		{
+			throw new NullPointerException("Error engine or solver null pointer [SolverPlayer]");
+		}
+		
+		this.engine 	= engine;
+		this.solver 	= solver;
+		this.probabilityEngine = probabilityEngine;
+		deductions 		= new Deductions();
+	}
+	
+	/**
+	 * Method that applies a single guaranteed move: a safe reveal if possible, otherwise a flag
+	 * @return If a move has been applied
+	 */
+	public boolean hint()
+	{
+		if(!engine.isPlaying()) { return false; }
+		
+		//The first reveal is always safe
+		if(!engine.isGenerated())
+		{
+			engine.reveal(engine.getWidth() / 2, engine.getHeight() / 2);
+			return true;
+		}
+		
+		solver.solve(deductions);
+		
+		if(deductions.getSafeCount() > 0)
+		{
+			engine.reveal(deductions.getSafe(0));
+			return true;
+		}
+		
+		if(deductions.getMineCount() > 0)
+		{
+			engine.flag(deductions.getMine(0));
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Method that applies all the guaranteed moves until none is left or the time is over
+	 * @param budget The time budget in nanoseconds
+	 * @return The number of applied moves (0 means that no guaranteed move exists)
+	 */
+	public int play(long budget)
+	{
+		long end = System.nanoTime() + budget;
+		int moves = 0;
+		
+		while(engine.isPlaying() && System.nanoTime() < end)
+		{
+			//The first reveal is always safe
+			if(!engine.isGenerated())
+			{
+				engine.reveal(engine.getWidth() / 2, engine.getHeight() / 2);
+				moves++;
+				continue;
+			}
+			
+			solver.solve(deductions);
+			
+			//Nothing else to do
+			if(deductions.isEmpty()) { break; }
+			
+			for(int k = 0; k < deductions.getSafeCount() && engine.isPlaying(); k++)
+			{
+				engine.reveal(deductions.getSafe(k));
+				moves++;
+			}
+			
+			for(int k = 0; k < deductions.getMineCount() && engine.isPlaying(); k++)
+			{
+				engine.flag(deductions.getMine(k));
+				moves++;
+			}
+		}
+		
+		return moves;
+	}
+	
+	/**
+	 * Method that reveals the cell with the lowest mine probability. It is meant for
+	 * the positions where no guaranteed move exists, so it can lose the game.
+	 * @return If a cell has been revealed
+	 */
+	public boolean guess()
+	{
+		if(probabilityEngine == null || !engine.isPlaying()) { return false; }
+		
+		//The first reveal is always safe
+		if(!engine.isGenerated())
+		{
+			engine.reveal(engine.getWidth() / 2, engine.getHeight() / 2);
+			return true;
+		}
+		
+		if(!probabilityEngine.compute() || probabilityEngine.getSafestCell() == -1) { return false; }
+		
+		engine.reveal(probabilityEngine.getSafestCell());
+		return true;
+	}
+	
+	/**
+	 * @return The solver that finds the moves
+	 */
+	public Solver getSolver() { return solver; }
+}
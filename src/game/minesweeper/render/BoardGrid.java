@@ -0,0 +1,115 @@
+package game.minesweeper.render;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.board.ChangeListener;
+import game.minesweeper.game.board.ChangeSet;
+
+/**
+ * State grid over the board of an engine. The states are read straight from the
+ * board store, while the changed range and the limited list of the changes not
+ * uploaded yet are collected from the change sets published by the engine.
+ * @author Matteo Pignataro
+ */
+public class BoardGrid implements StateGrid, ChangeListener
+{
+	/**
+	 * Maximum number of changed cells listed for the upload
+	 */
+	private static final int PENDING_LIMIT = 4096;
+	
+	/**
+	 * The board store to draw
+	 */
+	private final BoardStore store;
+	
+	/**
+	 * Changed cells range [dirtyStart, dirtyEnd)
+	 */
+	private int dirtyStart;
+	private int dirtyEnd;
+	
+	/**
+	 * Changes not uploaded yet (limited, the renderer uses the range on overflow)
+	 */
+	private final ChangeSet pending;
+	
+	/**
+	 * Constructor. The grid registers itself as a listener of the engine.
+	 * @param engine The engine of the board to draw
+	 */
+	public BoardGrid(BoardEngine engine)
+	{
+		//I expect the engine not null
+		if(engine == null)
+		{
+			throw new NullPointerException("Error engine null pointer [BoardGrid]");
+		}
+		
+		store 	= engine.getStore();
+		pending = new ChangeSet(PENDING_LIMIT);
+		
+		//The first upload covers the whole board
+		dirtyStart 	= 0;
+		dirtyEnd 	= store.getSize();
+		pending.markReset();
+		
+		engine.addChangeListener(this);
+	}
+	
+	@Override
+	public void changed(ChangeSet changes)
+	{
+		//A reset changes the whole board
+		if(changes.isReset())
+		{
+			dirtyStart 	= 0;
+			dirtyEnd 	= store.getSize();
+			pending.markReset();
+		}
+		
+		for(int k = 0; k < changes.size(); k++)
+		{
+			int index = changes.getIndex(k);
+			
+			//Expand the changed range
+			if(index < dirtyStart) 	{ dirtyStart = index; }
+			if(index >= dirtyEnd) 	{ dirtyEnd = index + 1; }
+			
+			pending.add(index, changes.getState(k));
+		}
+	}
+	
+	@Override
+	public int getGridWidth() { return store.getWidth(); }
+	
+	@Override
+	public int getGridHeight() { return store.getHeight(); }
+	
+	@Override
+	public int getGridState(int index) { return store.getStateOrdinal(index); }
+	
+	@Override
+	public int getDirtyStart() { return dirtyStart; }
+	
+	@Override
+	public int getDirtyEnd() { return dirtyEnd; }
+	
+	@Override
+	public void clearDirtyRange()
+	{
+		//Empty range
+		dirtyStart 	= store.getSize();
+		dirtyEnd 	= 0;
+		pending.clear();
+	}
+	
+	@Override
+	public int getChangedCount() { return pending.isOverflow() || pending.isReset() ? -1 : pending.size(); }
+	
+	@Override
+	public int getChangedIndex(int k) { return pending.getIndex(k); }
+	
+	@Override
+	public float getColumnShift() { return store.getColumnShift(); }
+}
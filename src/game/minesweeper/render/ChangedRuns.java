@@ -0,0 +1,120 @@
+package game.minesweeper.render;
+
+import java.util.Arrays;
+
+/**
+ * This class turns the changed cells listed by a state grid into a few sorted runs
+ * of contiguous indices, so that a renderer can upload exactly the changed cells
+ * instead of the whole changed range when the changes are far from each other.
+ * Near changes are merged in a single run because a few more bytes cost less than a call.
+ * @author Matteo Pignataro
+ */
+final class ChangedRuns
+{
+	/**
+	 * Changed range size under which a single range upload is always used
+	 */
+	private static final int RANGE_LIMIT = 4096;
+	
+	/**
+	 * Maximum number of runs, over it a single range upload is used
+	 */
+	private static final int MAX_RUNS = 64;
+	
+	/**
+	 * Maximum distance between two changes of the same run
+	 */
+	private static final int MERGE_GAP = 32;
+	
+	/**
+	 * Sorted changed indices
+	 */
+	private int indices[];
+	
+	/**
+	 * Runs [runStart, runEnd)
+	 */
+	private final int runStart[];
+	private final int runEnd[];
+	
+	/**
+	 * Number of runs
+	 */
+	private int runs;
+	
+	/**
+	 * Constructor
+	 */
+	ChangedRuns()
+	{
+		indices 	= new int[64];
+		runStart 	= new int[MAX_RUNS];
+		runEnd 		= new int[MAX_RUNS];
+		runs 		= 0;
+	}
+	
+	/**
+	 * Method that builds the runs of the changed cells
+	 * @param grid The grid with the changes
+	 * @param line The length of the lines that a run cannot cross (0 for no limit)
+	 * @return If the runs are worth it, otherwise the whole changed range should be uploaded
+	 */
+	boolean collect(StateGrid grid, int line)
+	{
+		int count = grid.getChangedCount();
+		
+		//Changes not listed or a small range
+		if(count < 0 || grid.getDirtyEnd() - grid.getDirtyStart() <= RANGE_LIMIT) { return false; }
+		
+		//Copy and sort the indices
+		if(indices.length < count)
+		{
+			indices = new int[Math.max(count, indices.length * 2)];
+		}
+		for(int k = 0; k < count; k++)
+		{
+			indices[k] = grid.getChangedIndex(k);
+		}
+		Arrays.sort(indices, 0, count);
+		
+		runs = 0;
+		
+		for(int k = 0; k < count; k++)
+		{
+			int index = indices[k];
+			
+			//Extend the last run if the change is near and on the same line
+			if(runs > 0 && index - runEnd[runs - 1] <= MERGE_GAP && (line <= 0 || index / line == runStart[runs - 1] / line))
+			{
+				runEnd[runs - 1] = Math.max(runEnd[runs - 1], index + 1);
+				continue;
+			}
+			
+			//Too many runs, the range is better
+			if(runs == MAX_RUNS) { return false; }
+			
+			runStart[runs] 	= index;
+			runEnd[runs] 	= index + 1;
+			runs++;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @param run The run number
+	 * @return The first index of the run
+	 */
+	int getStart(int run) { return runStart[run]; }
+	
+	/**
+	 * @param run The run number
+	 * @return The index after the last one of the run
+	 */
+	int getEnd(int run) { return runEnd[run]; }
+	
+	/**
+	 * @return The number of runs
+	 */
+	int size() { return runs; }
+}
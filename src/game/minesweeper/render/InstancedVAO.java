@@ -0,0 +1,364 @@
+package game.minesweeper.render;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLES;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_INT;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_ELEMENT_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+import static org.lwjgl.opengl.GL30.glVertexAttribIPointer;
+import static org.lwjgl.opengl.GL31.glDrawElementsInstanced;
+import static org.lwjgl.opengl.GL33.glVertexAttribDivisor;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * This class draws a whole grid of cells with a single instanced draw call.
+ * The VBO contains one static unit quad while a second buffer contains one
+ * byte per cell: the state (atlas tile index) of the instance.
+ * The cell position is computed in the vertex shader from the instance ID,
+ * so changing a cell costs a single byte of upload.
+ * @author Matteo Pignataro
+ */
+public class InstancedVAO implements Renderable
+{
+	/**
+	 * Maximum number of bytes uploaded with a single call
+	 */
+	private static final int STAGING_SIZE = 1 << 20;
+	
+	/**
+	 * Unit quad corners (x, y) from the top left one
+	 */
+	private static final float QUAD[] = {0, 0, 1, 0, 0, 1, 1, 1};
+	
+	/**
+	 * Sequence for rectangle draw
+	 */
+	private static final int ELEMENTS[] = {0, 1, 3, 0, 3, 2};
+	
+	/**
+	 * vaoID
+	 */
+	private int vaoID;
+	
+	/**
+	 * Quad vboID
+	 */
+	private int quadID;
+	
+	/**
+	 * eboID
+	 */
+	private int eboID;
+	
+	/**
+	 * Per instance state vboID
+	 */
+	private int stateID;
+	
+	/**
+	 * Shader assigned to this VAO
+	 */
+	private Shader shader;
+	
+	/**
+	 * Uniform locations, looked up once after linking
+	 */
+	private final int originLocation;
+	private final int cellSizeLocation;
+	private final int gridHeightLocation;
+	private final int columnShiftLocation;
+	
+	/**
+	 * The optional texture assigned
+	 */
+	private Texture texture;
+	
+	/**
+	 * The grid to draw
+	 */
+	private StateGrid grid;
+	
+	/**
+	 * Top left corner and cell size in pixels
+	 */
+	private int x;
+	private int y;
+	private int cellSize;
+	
+	/**
+	 * Window dimensions
+	 */
+	private int windowWidth;
+	private int windowHeight;
+	
+	/**
+	 * Staging buffer for the state uploads
+	 */
+	private ByteBuffer staging;
+	
+	/**
+	 * Runs of the listed changes
+	 */
+	private ChangedRuns runs;
+	
+	/**
+	 * Boolean that represents if the VAO has already been drawn
+	 */
+	private boolean drawn;
+	
+	/**
+	 * Boolean that represents a window size change not drawn yet
+	 */
+	private boolean resized;
+	
+	/**
+	 * Constructor
+	 * @param shader The shader that the user wants to execute
+	 * @param texture The texture that the user wants to bind
+	 * @param grid The grid of cells to draw
+	 * @param x The top left corner X position in pixels
+	 * @param y The top left corner Y position in pixels
+	 * @param cellSize The size in pixel of every single cell
+	 */
+	public InstancedVAO(Shader shader, Texture texture, StateGrid grid, int x, int y, int cellSize)
+	{
+		//I expect shader and grid not null
+		if(shader == null)
+		{
+			throw new NullPointerException("Error shader null pointer [InstancedVAO]");
+		}
+		
+		if(grid == null)
+		{
+			throw new NullPointerException("Error grid null pointer [InstancedVAO]");
+		}
+		
+		//Assign all the variables
+		this.shader 	= shader;
+		this.texture 	= texture;
+		this.grid 		= grid;
+		this.x 			= x;
+		this.y 			= y;
+		this.cellSize 	= cellSize;
+		
+		//The shader is already linked, so the uniform locations do not change
+		originLocation 		= shader.getUniformLocation("origin");
+		cellSizeLocation 	= shader.getUniformLocation("cellSize");
+		gridHeightLocation 	= shader.getUniformLocation("gridHeight");
+		columnShiftLocation = shader.getUniformLocation("columnShift");
+		
+		//Until the first window update i use a unit window
+		windowWidth 	= 1;
+		windowHeight 	= 1;
+		
+		//Create the VAO and the buffers
+		vaoID 	= glGenVertexArrays();
+		quadID 	= glGenBuffers();
+		eboID 	= glGenBuffers();
+		stateID = glGenBuffers();
+		
+		//Instance the staging buffer
+		staging = BufferUtils.createByteBuffer(Math.min(grid.getGridWidth() * grid.getGridHeight(), STAGING_SIZE));
+		runs = new ChangedRuns();
+		
+		//The VAO has not been drawn
+		drawn = false;
+		resized = false;
+	}
+	
+	/**
+	 * Method that allocates the buffers and sets the vertex layout
+	 */
+	private void setup()
+	{
+		//Static unit quad
+		glBindBuffer(GL_ARRAY_BUFFER, quadID);
+		glBufferData(GL_ARRAY_BUFFER, QUAD, GL_STATIC_DRAW);
+		glVertexAttribPointer(0, 2, GL_FLOAT, false, 2 * Float.BYTES, 0);
+		glEnableVertexAttribArray(0);
+		
+		//Static quad elements
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboID);
+		glBufferData(GL_ELEMENT_ARRAY_BUFFER, ELEMENTS, GL_STATIC_DRAW);
+		
+		//One state byte per instance
+		glBindBuffer(GL_ARRAY_BUFFER, stateID);
+		glBufferData(GL_ARRAY_BUFFER, (long)grid.getGridWidth() * grid.getGridHeight(), GL_STREAM_DRAW);
+		glVertexAttribIPointer(1, 1, GL_UNSIGNED_BYTE, 1, 0);
+		glVertexAttribDivisor(1, 1);
+		glEnableVertexAttribArray(1);
+	}
+	
+	/**
+	 * Method that uploads the changed range of the grid
+	 */
+	private void upload()
+	{
+		int start 	= grid.getDirtyStart();
+		int end 	= grid.getDirtyEnd();
+		
+		//Nothing changed
+		if(end <= start) { return; }
+		
+		glBindBuffer(GL_ARRAY_BUFFER, stateID);
+		
+		if(runs.collect(grid, 0))
+		{
+			//Few changes far from each other: i upload only the changed runs
+			for(int run = 0; run < runs.size(); run++)
+			{
+				uploadRange(runs.getStart(run), runs.getEnd(run));
+			}
+		}
+		else
+		{
+			uploadRange(start, end);
+		}
+		
+		//The changes have been uploaded
+		grid.clearDirtyRange();
+	}
+	
+	/**
+	 * Method that uploads a range of states in staging buffer chunks
+	 * @param start The first cell index
+	 * @param end The cell index after the last one
+	 */
+	private void uploadRange(int start, int end)
+	{
+		for(int offset = start; offset < end; offset += staging.capacity())
+		{
+			int length = Math.min(staging.capacity(), end - offset);
+			
+			((Buffer) staging).clear();
+			for(int k = 0; k < length; k++)
+			{
+				staging.put((byte) grid.getGridState(offset + k));
+			}
+			((Buffer) staging).flip();
+			
+			glBufferSubData(GL_ARRAY_BUFFER, offset, staging);
+		}
+	}
+	
+	@Override
+	public void draw()
+	{
+		//First of all we bind the VAO
+		bind();
+		
+		//In case of the first call i allocate the buffers
+		if(!drawn)
+		{
+			setup();
+			drawn = true;
+		}
+		
+		//Upload only the changed states
+		upload();
+		
+		//Set the grid uniforms
+		shader.setUniform(originLocation, x * 2.0f / windowWidth - 1, -y * 2.0f / windowHeight + 1);
+		shader.setUniform(cellSizeLocation, cellSize * 2.0f / windowWidth, cellSize * 2.0f / windowHeight);
+		shader.setUniform(gridHeightLocation, grid.getGridHeight());
+		shader.setUniform(columnShiftLocation, grid.getColumnShift());
+		
+		//Draw all the cells
+		glDrawElementsInstanced(GL_TRIANGLES, ELEMENTS.length, GL_UNSIGNED_INT, 0, grid.getGridWidth() * grid.getGridHeight());
+		
+		//Everything has been drawn
+		resized = false;
+		
+		//Unbind
+		unbind();
+	}
+	
+	@Override
+	public void updateWindowSize(int width, int height)
+	{
+		windowWidth 	= width;
+		windowHeight 	= height;
+		
+		//The uniforms change so i need to draw again
+		resized = true;
+	}
+	
+	/**
+	 * The VAO needs to be drawn again at the first call, after a resize
+	 * or if some cells changed
+	 */
+	@Override
+	public boolean isUpdated() { return !drawn || resized || grid.getDirtyEnd() > grid.getDirtyStart(); }
+	
+	/**
+	 * Binding method
+	 */
+	public void bind()
+	{
+		//Bind the vao
+		glBindVertexArray(vaoID);
+		//Bind the shader
+		shader.bind();
+		//Bind the texture in case not null
+		if(texture != null)
+		{
+			texture.bind();
+		}
+	}
+	
+	/**
+	 * Unbinding method
+	 */
+	public void unbind()
+	{
+		//Unbind the vao
+		glBindVertexArray(0);
+		//Unbind the shader
+		shader.unbind();
+		//Unbind the texture in case not null
+		if(texture != null)
+		{
+			texture.unbind();
+		}
+	}
+	
+	@Override
+	public void clean()
+	{
+		//Unbind all
+		unbind();
+		
+		//If present delete the vao and the buffers
+		if(vaoID != 0)
+		{
+			glDeleteVertexArrays(vaoID);
+			glDeleteBuffers(new int[] {quadID, eboID, stateID});
+			vaoID = 0;
+		}
+		
+		//Clean the shader
+		shader.clean();
+		//Clean the texture if present
+		if(texture != null)
+		{
+			texture.clean();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package game.minesweeper.render;
+
+/**
+ * Interface of the objects that the window can draw
+ * @author Matteo Pignataro
+ */
+public interface Renderable
+{
+	/**
+	 * Method to draw the object
+	 */
+	public void draw();
+	
+	/**
+	 * Callback method called when the window size is changed
+	 * @param width The new width
+	 * @param height The new height
+	 */
+	public void updateWindowSize(int width, int height);
+	
+	/**
+	 * @return If something changed since the last draw call
+	 */
+	public boolean isUpdated();
+	
+	/**
+	 * Clean method
+	 */
+	public void clean();
+}
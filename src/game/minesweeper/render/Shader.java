@@ -15,8 +15,13 @@ import static org.lwjgl.opengl.GL20.glGetProgramInfoLog;
 import static org.lwjgl.opengl.GL20.glGetProgrami;
 import static org.lwjgl.opengl.GL20.glGetShaderInfoLog;
 import static org.lwjgl.opengl.GL20.glGetShaderi;
+import static org.lwjgl.opengl.GL20.glGetUniformLocation;
 import static org.lwjgl.opengl.GL20.glLinkProgram;
 import static org.lwjgl.opengl.GL20.glShaderSource;
+import static org.lwjgl.opengl.GL20.glUniform1f;
+import static org.lwjgl.opengl.GL20.glUniform1i;
+import static org.lwjgl.opengl.GL20.glUniform2f;
+import static org.lwjgl.opengl.GL20.glUniform2i;
 import static org.lwjgl.opengl.GL20.glUseProgram;
 import static org.lwjgl.opengl.GL20.glValidateProgram;
 import static org.lwjgl.opengl.GL32.GL_GEOMETRY_SHADER;
@@ -181,6 +186,44 @@ public class Shader
 	 */
 	public void bind() { glUseProgram(programID); }
 	
+	/**
+	 * Method to look up the location of a uniform. The program is linked in the constructor,
+	 * so the location can be looked up once and kept by the caller.
+	 * @param name The uniform name
+	 * @return The uniform location (-1 if the program has no such active uniform)
+	 */
+	public int getUniformLocation(String name) { return glGetUniformLocation(programID, name); }
+	
+	/**
+	 * Method to set an integer uniform. The shader needs to be bound.
+	 * @param location The uniform location
+	 * @param value The value
+	 */
+	public void setUniform(int location, int value) { glUniform1i(location, value); }
+	
+	/**
+	 * Method to set a float uniform. The shader needs to be bound.
+	 * @param location The uniform location
+	 * @param value The value
+	 */
+	public void setUniform(int location, float value) { glUniform1f(location, value); }
+	
+	/**
+	 * Method to set a vec2 uniform. The shader needs to be bound.
+	 * @param location The uniform location
+	 * @param x The first component
+	 * @param y The second component
+	 */
+	public void setUniform(int location, float x, float y) { glUniform2f(location, x, y); }
+	
+	/**
+	 * Method to set an ivec2 uniform. The shader needs to be bound.
+	 * @param location The uniform location
+	 * @param x The first component
+	 * @param y The second component
+	 */
+	public void setUniform(int location, int x, int y) { glUniform2i(location, x, y); }
+	
 	/**
 	 * Unbind method
 	 */
@@ -0,0 +1,61 @@
+package game.minesweeper.render;
+
+/**
+ * Interface of a grid of cells where every cell is represented by a
+ * single state index inside the texture atlas (8x8 tiles).
+ * The grid keeps track of the range of cells changed since the last upload
+ * and, when they are a few, of the list of changed cells.
+ * Cells are indexed by i * height + j.
+ * @author Matteo Pignataro
+ */
+public interface StateGrid
+{
+	/**
+	 * @return The grid width in cells
+	 */
+	public int getGridWidth();
+	
+	/**
+	 * @return The grid height in cells
+	 */
+	public int getGridHeight();
+	
+	/**
+	 * @param index The linear cell index
+	 * @return The atlas tile index of the cell
+	 */
+	public int getGridState(int index);
+	
+	/**
+	 * @return The first changed cell index (inclusive)
+	 */
+	public int getDirtyStart();
+	
+	/**
+	 * @return The last changed cell index (exclusive). When it is not greater than
+	 * the start there are no changes.
+	 */
+	public int getDirtyEnd();
+	
+	/**
+	 * @return The number of changed cells listed since the last clearDirtyRange call,
+	 * or -1 when the changes are not listed and only the range is known
+	 */
+	public int getChangedCount();
+	
+	/**
+	 * @param k The change number (not greater than the changed count)
+	 * @return The linear index of the changed cell (the same cell can be listed more times)
+	 */
+	public int getChangedIndex(int k);
+	
+	/**
+	 * @return The vertical shift of the odd columns in cells (0 for a square grid)
+	 */
+	public float getColumnShift();
+	
+	/**
+	 * Method to forget the changed range and the listed changes after the upload
+	 */
+	public void clearDirtyRange();
+}
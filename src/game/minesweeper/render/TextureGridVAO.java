@@ -0,0 +1,395 @@
+package game.minesweeper.render;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_MAX_TEXTURE_SIZE;
+import static org.lwjgl.opengl.GL11.GL_NEAREST;
+import static org.lwjgl.opengl.GL11.GL_RED;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MAG_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_MIN_FILTER;
+import static org.lwjgl.opengl.GL11.GL_TRIANGLE_STRIP;
+import static org.lwjgl.opengl.GL11.GL_UNPACK_ALIGNMENT;
+import static org.lwjgl.opengl.GL11.GL_UNSIGNED_BYTE;
+import static org.lwjgl.opengl.GL11.glBindTexture;
+import static org.lwjgl.opengl.GL11.glDeleteTextures;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL11.glGenTextures;
+import static org.lwjgl.opengl.GL11.glGetInteger;
+import static org.lwjgl.opengl.GL11.glPixelStorei;
+import static org.lwjgl.opengl.GL11.glTexImage2D;
+import static org.lwjgl.opengl.GL11.glTexParameteri;
+import static org.lwjgl.opengl.GL11.glTexSubImage2D;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE0;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE1;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
+import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
+import static org.lwjgl.opengl.GL30.GL_R8;
+import static org.lwjgl.opengl.GL30.glBindVertexArray;
+import static org.lwjgl.opengl.GL30.glDeleteVertexArrays;
+import static org.lwjgl.opengl.GL30.glGenVertexArrays;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+
+/**
+ * This class draws a whole grid of cells as a single quad. The cell states
+ * live in an R8 texture with one texel per cell and the fragment shader
+ * picks the atlas tile from the state texel, so the draw cost depends on
+ * the covered pixels and not on the number of cells.
+ * The texel (j, i) holds the cell (i, j), so every board column is a texture
+ * row and the changed range of the grid maps to a few texture rows.
+ * @author Matteo Pignataro
+ */
+public class TextureGridVAO implements Renderable
+{
+	/**
+	 * Maximum number of bytes uploaded with a single call
+	 */
+	private static final int STAGING_SIZE = 1 << 20;
+	
+	/**
+	 * Unit quad corners (x, y) in triangle strip order
+	 */
+	private static final float QUAD[] = {0, 0, 1, 0, 0, 1, 1, 1};
+	
+	/**
+	 * vaoID
+	 */
+	private int vaoID;
+	
+	/**
+	 * Quad vboID
+	 */
+	private int quadID;
+	
+	/**
+	 * State texture ID
+	 */
+	private int stateTextureID;
+	
+	/**
+	 * Shader assigned to this VAO
+	 */
+	private Shader shader;
+	
+	/**
+	 * Uniform locations, looked up once after linking
+	 */
+	private final int gridSizeLocation;
+	private final int columnShiftLocation;
+	private final int originLocation;
+	private final int boardSizeLocation;
+	
+	/**
+	 * The atlas texture
+	 */
+	private Texture texture;
+	
+	/**
+	 * The grid to draw
+	 */
+	private StateGrid grid;
+	
+	/**
+	 * Top left corner and cell size in pixels
+	 */
+	private int x;
+	private int y;
+	private int cellSize;
+	
+	/**
+	 * Window dimensions
+	 */
+	private int windowWidth;
+	private int windowHeight;
+	
+	/**
+	 * Staging buffer for the state uploads
+	 */
+	private ByteBuffer staging;
+	
+	/**
+	 * Runs of the listed changes
+	 */
+	private ChangedRuns runs;
+	
+	/**
+	 * Boolean that represents if the VAO has already been drawn
+	 */
+	private boolean drawn;
+	
+	/**
+	 * Boolean that represents a window size change not drawn yet
+	 */
+	private boolean resized;
+	
+	/**
+	 * Constructor
+	 * @param shader The shader that the user wants to execute
+	 * @param texture The atlas texture
+	 * @param grid The grid of cells to draw
+	 * @param x The top left corner X position in pixels
+	 * @param y The top left corner Y position in pixels
+	 * @param cellSize The size in pixel of every single cell
+	 */
+	public TextureGridVAO(Shader shader, Texture texture, StateGrid grid, int x, int y, int cellSize)
+	{
+		//I expect shader, texture and grid not null
+		if(shader == null || texture == null || grid == null)
+		{
+			throw new NullPointerException("Error shader, texture or grid null pointer [TextureGridVAO]");
+		}
+		
+		//The grid needs to fit inside a texture
+		if(!isSupported(grid))
+		{
+			throw new RuntimeException("Grid too big for a texture [TextureGridVAO]");
+		}
+		
+		//Assign all the variables
+		this.shader 	= shader;
+		this.texture 	= texture;
+		this.grid 		= grid;
+		this.x 			= x;
+		this.y 			= y;
+		this.cellSize 	= cellSize;
+		
+		//The shader is already linked, so the uniform locations do not change
+		gridSizeLocation 	= shader.getUniformLocation("gridSize");
+		columnShiftLocation = shader.getUniformLocation("columnShift");
+		originLocation 		= shader.getUniformLocation("origin");
+		boardSizeLocation 	= shader.getUniformLocation("boardSize");
+		
+		//Until the first window update i use a unit window
+		windowWidth 	= 1;
+		windowHeight 	= 1;
+		
+		//Create the VAO, the buffer and the state texture
+		vaoID 			= glGenVertexArrays();
+		quadID 			= glGenBuffers();
+		stateTextureID 	= glGenTextures();
+		
+		//Instance the staging buffer (at least a whole texture row)
+		staging = BufferUtils.createByteBuffer(Math.max(grid.getGridHeight(), Math.min(grid.getGridWidth() * grid.getGridHeight(), STAGING_SIZE)));
+		runs = new ChangedRuns();
+		
+		//The VAO has not been drawn
+		drawn = false;
+		resized = false;
+	}
+	
+	/**
+	 * Method that checks if the grid fits inside a texture
+	 * @param grid The grid to check
+	 * @return boolean of the result
+	 */
+	public static boolean isSupported(StateGrid grid)
+	{
+		int maxSize = glGetInteger(GL_MAX_TEXTURE_SIZE);
+		
+		return grid.getGridWidth() <= maxSize && grid.getGridHeight() <= maxSize;
+	}
+	
+	/**
+	 * Method that allocates the quad and the state texture
+	 */
+	private void setup()
+	{
+		//The texture units of the samplers never change (the shader is bound)
+		shader.setUniform(shader.getUniformLocation("textureFile"), 0);
+		shader.setUniform(shader.getUniformLocation("stateTexture"), 1);
+		
+		//Static unit quad
+		glBindBuffer(GL_ARRAY_BUFFER, quadID);
+		glBufferData(GL_ARRAY_BUFFER, QUAD, GL_STATIC_DRAW);
+		glVertexAttribPointer(0, 2, GL_FLOAT, false, 2 * Float.BYTES, 0);
+		glEnableVertexAttribArray(0);
+		
+		//State texture, it is never filtered
+		glBindTexture(GL_TEXTURE_2D, stateTextureID);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
+		glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+		glTexImage2D(GL_TEXTURE_2D, 0, GL_R8, grid.getGridHeight(), grid.getGridWidth(), 0, GL_RED, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+	}
+	
+	/**
+	 * Method that uploads the texel rectangles of the changed range.
+	 * The state texture needs to be bound.
+	 */
+	private void upload()
+	{
+		int start 	= grid.getDirtyStart();
+		int end 	= grid.getDirtyEnd();
+		
+		//Nothing changed
+		if(end <= start) { return; }
+		
+		int height = grid.getGridHeight();
+		
+		//The rows are tightly packed
+		glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+		
+		int firstRow 	= start / height;
+		int lastRow 	= (end - 1) / height;
+		
+		if(runs.collect(grid, height))
+		{
+			//Few changes far from each other: every run is inside a single row
+			for(int run = 0; run < runs.size(); run++)
+			{
+				int runStart 	= runs.getStart(run);
+				int length 		= runs.getEnd(run) - runStart;
+				int row 		= runStart / height;
+				
+				fill(runStart, length);
+				glTexSubImage2D(GL_TEXTURE_2D, 0, runStart - row * height, row, length, 1, GL_RED, GL_UNSIGNED_BYTE, staging);
+			}
+		}
+		else if(firstRow == lastRow)
+		{
+			//A single row: i upload only the changed texels
+			fill(start, end - start);
+			glTexSubImage2D(GL_TEXTURE_2D, 0, start - firstRow * height, firstRow, end - start, 1, GL_RED, GL_UNSIGNED_BYTE, staging);
+		}
+		else
+		{
+			//Multiple rows: i upload whole rows in staging buffer chunks
+			int rowsPerChunk = staging.capacity() / height;
+			
+			for(int row = firstRow; row <= lastRow; row += rowsPerChunk)
+			{
+				int rows = Math.min(rowsPerChunk, lastRow - row + 1);
+				
+				fill(row * height, rows * height);
+				glTexSubImage2D(GL_TEXTURE_2D, 0, 0, row, height, rows, GL_RED, GL_UNSIGNED_BYTE, staging);
+			}
+		}
+		
+		//The changes have been uploaded
+		grid.clearDirtyRange();
+	}
+	
+	/**
+	 * Method that copies a range of states inside the staging buffer
+	 * @param offset The first cell index
+	 * @param length The number of cells
+	 */
+	private void fill(int offset, int length)
+	{
+		((Buffer) staging).clear();
+		for(int k = 0; k < length; k++)
+		{
+			staging.put((byte) grid.getGridState(offset + k));
+		}
+		((Buffer) staging).flip();
+	}
+	
+	@Override
+	public void draw()
+	{
+		//First of all we bind the VAO
+		bind();
+		
+		//In case of the first call i allocate the buffers
+		if(!drawn)
+		{
+			setup();
+			drawn = true;
+		}
+		
+		//Upload only the changed texels
+		upload();
+		
+		//Set the board uniforms
+		shader.setUniform(gridSizeLocation, grid.getGridWidth(), grid.getGridHeight());
+		shader.setUniform(columnShiftLocation, grid.getColumnShift());
+		shader.setUniform(originLocation, x * 2.0f / windowWidth - 1, -y * 2.0f / windowHeight + 1);
+		shader.setUniform(boardSizeLocation, grid.getGridWidth() * cellSize * 2.0f / windowWidth, (grid.getGridHeight() + grid.getColumnShift()) * cellSize * 2.0f / windowHeight);
+		
+		//Draw the board quad
+		glDrawArrays(GL_TRIANGLE_STRIP, 0, 4);
+		
+		//Everything has been drawn
+		resized = false;
+		
+		//Unbind
+		unbind();
+	}
+	
+	@Override
+	public void updateWindowSize(int width, int height)
+	{
+		windowWidth 	= width;
+		windowHeight 	= height;
+		
+		//The uniforms change so i need to draw again
+		resized = true;
+	}
+	
+	/**
+	 * The VAO needs to be drawn again at the first call, after a resize
+	 * or if some cells changed
+	 */
+	@Override
+	public boolean isUpdated() { return !drawn || resized || grid.getDirtyEnd() > grid.getDirtyStart(); }
+	
+	/**
+	 * Binding method. The atlas goes on unit 0 and the states on unit 1
+	 */
+	public void bind()
+	{
+		//Bind the vao
+		glBindVertexArray(vaoID);
+		//Bind the shader
+		shader.bind();
+		//Bind the textures
+		glActiveTexture(GL_TEXTURE0);
+		texture.bind();
+		glActiveTexture(GL_TEXTURE1);
+		glBindTexture(GL_TEXTURE_2D, stateTextureID);
+	}
+	
+	/**
+	 * Unbinding method
+	 */
+	public void unbind()
+	{
+		//Unbind the vao
+		glBindVertexArray(0);
+		//Unbind the shader
+		shader.unbind();
+		//Unbind the textures and go back to the default unit
+		glBindTexture(GL_TEXTURE_2D, 0);
+		glActiveTexture(GL_TEXTURE0);
+		texture.unbind();
+	}
+	
+	@Override
+	public void clean()
+	{
+		//Unbind all
+		unbind();
+		
+		//If present delete the vao, the buffer and the state texture
+		if(vaoID != 0)
+		{
+			glDeleteVertexArrays(vaoID);
+			glDeleteBuffers(quadID);
+			glDeleteTextures(stateTextureID);
+			vaoID = 0;
+		}
+		
+		//Clean the shader and the atlas
+		shader.clean();
+		texture.clean();
+	}
+}
@@ -12,7 +12,6 @@ import static org.lwjgl.opengl.GL15.glBindBuffer;
 import static org.lwjgl.opengl.GL15.glBufferData;
 import static org.lwjgl.opengl.GL15.glBufferSubData;
 import static org.lwjgl.opengl.GL15.glGenBuffers;
-import static org.lwjgl.opengl.GL20.glDisableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glEnableVertexAttribArray;
 import static org.lwjgl.opengl.GL20.glVertexAttribPointer;
 import static org.lwjgl.opengl.GL30.glBindVertexArray;
@@ -36,9 +35,11 @@ import org.lwjgl.BufferUtils;
  * They both have fixed dimensions so after the first draw it will be
  * impossible to add another element. It will be possible though to modify
  * the already registered elements but not their vertices number.
+ * The EBO is uploaded only once, while the updated elements are merged in
+ * contiguous ranges and uploaded to the VBO through a single staging buffer.
  * @author Matteo Pignataro
  */
-public class VAO 
+public class VAO implements Renderable
 {
 	/**
 	 * vaoID
@@ -85,6 +86,26 @@ public class VAO
 	 */
 	private List<DrawableElement> elements;
 	
+	/**
+	 * Number of floats per vertex. It is computed when the layout is finalized
+	 */
+	private int stride;
+	
+	/**
+	 * Boolean that represents if the vertex layout has already been set
+	 */
+	private boolean layoutFinalized;
+	
+	/**
+	 * Vertex offset of every element inside the VBO (in floats)
+	 */
+	private int vertexOffsets[];
+	
+	/**
+	 * Staging buffer used to upload the updated vertices
+	 */
+	private FloatBuffer staging;
+	
 	/**
 	 * Boolean that represents if the VAO has already been drawn
 	 */
@@ -126,6 +147,10 @@ public class VAO
 		//The VAO has not been drawn
 		drawn = false;
 		
+		//The layout has not been set
+		layoutFinalized = false;
+		stride = 0;
+		
 		//This is optional
 		this.texture = texture;
 	}
@@ -135,6 +160,7 @@ public class VAO
 	 * @param width The new width
 	 * @param height The new height
 	 */
+	@Override
 	public void updateWindowSize(int width, int height)
 	{
 		//Forall the elements in the VAO i call the same method
@@ -152,88 +178,107 @@ public class VAO
 	
 	/**
 	 * Method to draw the entire VAO.
-	 * It allocates the buffers if it is the first draw call.
+	 * It allocates the buffers and fixes the vertex layout if it is the first draw call.
 	 */
+	@Override
 	public void draw()
 	{
+		//The layout is fixed once and stored inside the VAO
+		if(!layoutFinalized)
+		{
+			finalizeLayout();
+		}
+		
 		//First of all we bind the VAO
 		bind();
 		
 		//In case of the first call i allocate the buffers
 		if(!drawn)
 		{
-			//Bind the VBO
-			glBindBuffer(GL_ARRAY_BUFFER, vboID);
+			allocate();
 			
-			//Put a new buffer with the correct dimensions in the vbo
-			//I use stream_draw because it is usal to change some parameters
-			glBufferData(GL_ARRAY_BUFFER, BufferUtils.createFloatBuffer(vertexSize), GL_STREAM_DRAW);
+			//I invalidate the addElement function
+			drawn = true;
+		}
+		
+		//For all the updated elements i merge the contiguous ones in a single upload
+		int index = 0;
+		while(index < elements.size())
+		{
+			//Skip the elements that are not updated
+			if(!elements.get(index).isUpdated())
+			{
+				index++;
+				continue;
+			}
 			
-			//Bind the EBO
-			glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboID);
+			//Collect the range of contiguous updated elements in the staging buffer
+			int start = index;
+			((Buffer) staging).clear();
 			
-			//Put a new buffer with the correct dimensions in the ebo
-			//I use static_draw because it is difficult that the triangle
-			//draw order is changed
-			glBufferData(GL_ELEMENT_ARRAY_BUFFER, BufferUtils.createIntBuffer(elementSize), GL_STATIC_DRAW);
+			while(index < elements.size() && elements.get(index).isUpdated())
+			{
+				staging.put(elements.get(index).getVertices());
+				
+				//At the end i toggle the update
+				elements.get(index).toggleUpdate();
+				index++;
+			}
 			
-			//I invalidate the addElement function
-			drawn = true;
+			//Cast the buffer to avoid compatibility errors
+			((Buffer) staging).flip();
+			
+			//Bind the VBO and insert the vertex range
+			glBindBuffer(GL_ARRAY_BUFFER, vboID);
+			glBufferSubData(GL_ARRAY_BUFFER, vertexOffsets[start] * Float.BYTES, staging);
 		}
 		
-		//Temporary Indices useful for counting the vertex and element positions
-		int vertexIndex = 0;
-		int elementIndex = 0;
-		//Sum of attributes per vertex
-		int sumAttributes = (attributes.stream().reduce(0, Integer::sum)).intValue();
-		//Temporary buffers to insert the values
-		FloatBuffer bufferFloat;
-		IntBuffer bufferInt;
+		//Draw the VAO
+		glDrawElements(GL_TRIANGLES, elementSize, GL_UNSIGNED_INT, 0);
+		
+		//Unbind
+		unbind();
+	}
+	
+	/**
+	 * The VAO needs to be drawn again if it has never been drawn
+	 * or if at least one element is updated
+	 */
+	@Override
+	public boolean isUpdated()
+	{
+		if(!drawn) { return true; }
 		
-		//For all the updated elements i update them in the buffers
 		for(int i = 0; i < elements.size(); i++)
 		{
 			if(elements.get(i).isUpdated())
 			{
-				//Create the buffers
-				bufferFloat = BufferUtils.createFloatBuffer(elements.get(i).getVerticesSize())
-										 .put(elements.get(i).getVertices());
-				
-				//Cast the buffer to avoid compatibility errors
-				((Buffer) bufferFloat).flip();
-				
-				bufferInt = BufferUtils.createIntBuffer(elements.get(i).getElementsSize());
-				
-				//I need to traslate the elements number with the number of vertices added before
-				for(int j = 0; j < elements.get(i).getElementsSize(); j++)
-				{
-					bufferInt.put(elements.get(i).getElements()[j] + vertexIndex / sumAttributes);
-				}
-				
-				//Flip the element buffer
-				((Buffer) bufferInt).flip();
-				
-				//Bind the VBO
-				glBindBuffer(GL_ARRAY_BUFFER, vboID);
-				
-				//Insert the vertex array
-				glBufferSubData(GL_ARRAY_BUFFER, vertexIndex * Float.BYTES, bufferFloat);
-				
-				//Bind the EBO
-				glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboID);
-				
-				//Insert the element array
-				glBufferSubData(GL_ELEMENT_ARRAY_BUFFER, elementIndex * Integer.BYTES, bufferInt);
-				
-				//At the end i toggle the update
-				elements.get(i).toggleUpdate();
+				return true;
 			}
-			
-			vertexIndex += elements.get(i).getVerticesSize();
-			elementIndex += elements.get(i).getElementsSize();
 		}
 		
-		//Bind the VBO
+		return false;
+	}
+	
+	/**
+	 * Method that fixes the vertex layout. The attribute pointers are stored
+	 * inside the VAO, so they are set and enabled only once.
+	 * After this call no other attribute can be added.
+	 */
+	public void finalizeLayout()
+	{
+		//If the layout is already set i do nothing
+		if(layoutFinalized) { return; }
+		
+		//Sum of attributes per vertex
+		stride = 0;
+		for(int i = 0; i < attributes.size(); i++)
+		{
+			stride += attributes.get(i);
+		}
+		
+		//Bind the VAO and the VBO
+		glBindVertexArray(vaoID);
 		glBindBuffer(GL_ARRAY_BUFFER, vboID);
 		
 		//Partial sum of attributes. It is used to indicate the offset
@@ -243,7 +288,7 @@ public class VAO
 		for(int i = 0; i < attributes.size(); i++)
 		{
 			//Create the attribute pointer
-			glVertexAttribPointer(i, attributes.get(i).intValue(), GL_FLOAT, false, sumAttributes * Float.BYTES, partialSum * Float.BYTES);
+			glVertexAttribPointer(i, attributes.get(i).intValue(), GL_FLOAT, false, stride * Float.BYTES, partialSum * Float.BYTES);
 			
 			//Enable the vertex attribute pointer
 			glEnableVertexAttribArray(i);
@@ -252,20 +297,56 @@ public class VAO
 			partialSum += attributes.get(i);
 		}
 		
-		//Draw the VAO
-		glDrawElements(GL_TRIANGLES, elementIndex, GL_UNSIGNED_INT, 0);
+		//Unbind the VAO
+		glBindVertexArray(0);
 		
+		//The layout is now fixed
+		layoutFinalized = true;
+	}
+	
+	/**
+	 * Method that allocates the buffers at the first draw call.
+	 * The elements never change, so the EBO is filled here once.
+	 */
+	private void allocate()
+	{
 		//Bind the VBO
 		glBindBuffer(GL_ARRAY_BUFFER, vboID);
 		
-		//Disable all the attrinutes pointers
-		for(int i = 0; i < attributes.size(); i++)
+		//Put a new buffer with the correct dimensions in the vbo
+		//I use stream_draw because it is usal to change some parameters
+		glBufferData(GL_ARRAY_BUFFER, (long) vertexSize * Float.BYTES, GL_STREAM_DRAW);
+		
+		//Instance the staging buffer and the element offsets
+		staging 		= BufferUtils.createFloatBuffer(vertexSize);
+		vertexOffsets 	= new int[elements.size()];
+		
+		//Build the whole element buffer
+		IntBuffer bufferInt = BufferUtils.createIntBuffer(elementSize);
+		int vertexIndex = 0;
+		
+		for(int i = 0; i < elements.size(); i++)
 		{
-			glDisableVertexAttribArray(i);
+			vertexOffsets[i] = vertexIndex;
+			
+			//I need to traslate the elements number with the number of vertices added before
+			int elementArray[] = elements.get(i).getElements();
+			for(int j = 0; j < elementArray.length; j++)
+			{
+				bufferInt.put(elementArray[j] + vertexIndex / stride);
+			}
+			
+			vertexIndex += elements.get(i).getVerticesSize();
 		}
 		
-		//Unbind
-		unbind();
+		//Flip the element buffer
+		((Buffer) bufferInt).flip();
+		
+		//Bind the EBO
+		glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, eboID);
+		
+		//I use static_draw because the triangle draw order never changes
+		glBufferData(GL_ELEMENT_ARRAY_BUFFER, bufferInt, GL_STATIC_DRAW);
 	}
 	
 	/**
@@ -294,8 +375,8 @@ public class VAO
 	 */
 	public void addAttribute(int dim)
 	{
-		//If it has value
-		if(dim > 0)
+		//If it has value and the layout is not fixed yet
+		if(dim > 0 && !layoutFinalized)
 		{
 			attributes.add(dim);
 		}
@@ -336,6 +417,7 @@ public class VAO
 	/**
 	 * Clean method
 	 */
+	@Override
 	public void clean()
 	{
 		//Unbind all
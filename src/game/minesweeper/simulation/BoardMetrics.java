@@ -0,0 +1,77 @@
+package game.minesweeper.simulation;
+
+import java.util.Arrays;
+
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Board difficulty metrics computed on the real states of a generated board
+ * @author Matteo Pignataro
+ */
+public final class BoardMetrics
+{
+	private BoardMetrics() {}
+	
+	/**
+	 * Method that computes the 3BV of a board: the minimum number of clicks needed to
+	 * reveal it, that is the number of openings (blank regions) plus the numbers that
+	 * do not border any opening.
+	 * @param store The board store with the mines placed and the numbers assigned
+	 * @return The 3BV of the board
+	 */
+	public static int threeBV(BoardStore store)
+	{
+		int width 		= store.getWidth();
+		int height 		= store.getHeight();
+		int none 		= CellState.CELL_NONE.ordinal();
+		int bomb 		= CellState.BOMB.ordinal();
+		boolean opened[] = new boolean[store.getSize()];
+		int stack[] 	= new int[64];
+		int result 		= 0;
+		
+		//Every blank region and its border is opened by a single click
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			if(opened[index] || store.getRealStateOrdinal(index) != none) { continue; }
+			
+			result++;
+			int size = 0;
+			stack[size++] = index;
+			opened[index] = true;
+			
+			while(size > 0)
+			{
+				int current = stack[--size];
+				
+				if(store.getRealStateOrdinal(current) != none) { continue; }
+				
+				int i = current / height;
+				int j = current - i * height;
+				
+				for(int ni = Math.max(i - 1, 0); ni <= Math.min(i + 1, width - 1); ni++)
+				{
+					for(int nj = Math.max(j - 1, 0); nj <= Math.min(j + 1, height - 1); nj++)
+					{
+						int neighbour = ni * height + nj;
+						
+						if(!opened[neighbour])
+						{
+							opened[neighbour] = true;
+							if(size == stack.length) { stack = Arrays.copyOf(stack, size * 2); }
+							stack[size++] = neighbour;
+						}
+					}
+				}
+			}
+		}
+		
+		//Every other number needs its own click
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			if(!opened[index] && store.getRealStateOrdinal(index) != bomb) { result++; }
+		}
+		
+		return result;
+	}
+}
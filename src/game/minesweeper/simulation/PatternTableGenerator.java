@@ -0,0 +1,96 @@
+package game.minesweeper.simulation;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.solver.Deductions;
+import game.minesweeper.game.solver.PatternTable;
+import game.minesweeper.game.solver.ProbabilityEngine;
+import game.minesweeper.game.solver.RuleSolver;
+import game.minesweeper.game.solver.Solver;
+import game.minesweeper.game.solver.SolverPlayer;
+
+/**
+ * Tool that builds the pattern table: it plays games on the classic configurations and
+ * solves the window of every frontier cell met, the windows are added to the table of
+ * the given file (if it already exists) and the table is saved.
+ * Usage: PatternTableGenerator file [games per configuration] [seed]
+ * @author Matteo Pignataro
+ */
+public class PatternTableGenerator
+{
+	/**
+	 * Board configurations (width, height, mines)
+	 */
+	private static final int CONFIGURATIONS[][] = {{9, 9, 10}, {16, 16, 40}, {30, 16, 99}};
+	
+	/**
+	 * Time budget of a probabilities computation (nanoseconds)
+	 */
+	private static final long PROBABILITY_BUDGET = 20_000_000;
+	
+	public static void main(String[] args)
+	{
+		if(args.length < 1)
+		{
+			System.out.println("Usage: PatternTableGenerator file [games per configuration] [seed]");
+			return;
+		}
+		
+		int games 	= args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		long seed 	= args.length > 2 ? Long.parseLong(args[2]) : 42;
+		
+		PatternTable table = PatternTable.load(args[0]);
+		int start = table.size();
+		
+		for(int configuration[] : CONFIGURATIONS)
+		{
+			BoardEngine engine 	= new BoardEngine(configuration[0], configuration[1], BoardGenerator.withBombs(configuration[2], seed));
+			RuleSolver rules 	= new RuleSolver(engine);
+			
+			//Every solve first records the windows of the position
+			Solver collector = (Deductions result) ->
+			{
+				collect(engine.getStore(), table);
+				rules.solve(result);
+			};
+			
+			SolverPlayer player = new SolverPlayer(engine, collector, new ProbabilityEngine(engine, PROBABILITY_BUDGET));
+			
+			for(int game = 0; game < games; game++)
+			{
+				engine.reset();
+				
+				while(engine.isPlaying())
+				{
+					player.play(Long.MAX_VALUE >>> 2);
+					
+					if(!player.guess()) { break; }
+				}
+			}
+			
+			System.out.println(configuration[0] + "x" + configuration[1] + "/" + configuration[2] + ": " + table.size() + " patterns");
+		}
+		
+		table.save(args[0]);
+		System.out.println((table.size() - start) + " new patterns, " + table.size() + " saved in " + args[0]);
+	}
+	
+	/**
+	 * Method that solves and adds the windows of the frontier cells not in the table yet
+	 * @param store The board store
+	 * @param table The pattern table
+	 */
+	private static void collect(BoardStore store, PatternTable table)
+	{
+		for(int index = 0; index < store.getSize(); index++)
+		{
+			long key = PatternTable.key(store, index);
+			
+			if(key != PatternTable.NO_KEY && table.get(key) == PatternTable.MISSING)
+			{
+				table.put(key, PatternTable.solve(key));
+			}
+		}
+	}
+}
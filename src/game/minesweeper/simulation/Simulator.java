@@ -0,0 +1,286 @@
+package game.minesweeper.simulation;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardGenerator;
+import game.minesweeper.game.board.ChangeListener;
+import game.minesweeper.game.board.ChangeSet;
+import game.minesweeper.game.board.GameState;
+import game.minesweeper.game.objects.CellState;
+
+/**
+ * Headless Monte-Carlo simulation of many games with a pluggable strategy on all the cores.
+ * Every game k has its own seeds derived from the base seed, so the results do not depend
+ * on the number of threads. It reports the win rate, the mean 3BV, the mean reveal
+ * operations and revealed cells per game and the games per second.
+ * Usage: Simulator width height mines|density% games [rules|random|probability] [seed] [threads]
+ * @author Matteo Pignataro
+ */
+public class Simulator
+{
+	/**
+	 * Golden ratio increment of the seeds sequence
+	 */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	
+	/**
+	 * Games taken by a worker at once
+	 */
+	private static final int CHUNK = 16;
+	
+	/**
+	 * Simulation parameters
+	 */
+	private final int width;
+	private final int height;
+	private final int mines;
+	private final double density;
+	private final Strategy.Factory factory;
+	private final long seed;
+	
+	/**
+	 * Next game to play
+	 */
+	private final AtomicLong next;
+	
+	/**
+	 * Constructor
+	 * @param width The board width
+	 * @param height The board height
+	 * @param mines The exact number of mines (or a value <= 0 to use the density)
+	 * @param density The mines density when the number of mines is not given
+	 * @param factory The strategy factory
+	 * @param seed The base seed
+	 */
+	public Simulator(int width, int height, int mines, double density, Strategy.Factory factory, long seed)
+	{
+		//I expect a strategy
+		if(factory == null)
+		{
+			throw new NullPointerException("Error factory null pointer [Simulator]");
+		}
+		
+		this.width 		= width;
+		this.height 	= height;
+		this.mines 		= mines;
+		this.density 	= density;
+		this.factory 	= factory;
+		this.seed 		= seed;
+		next 			= new AtomicLong();
+	}
+	
+	/**
+	 * Method that plays the games on the given number of threads
+	 * @param games The number of games
+	 * @param threads The number of worker threads
+	 * @return The merged results
+	 */
+	public Result run(long games, int threads)
+	{
+		next.set(0);
+		Worker workers[] = new Worker[Math.max(threads, 1)];
+		Thread pool[] = new Thread[workers.length];
+		
+		long start = System.nanoTime();
+		
+		for(int t = 0; t < workers.length; t++)
+		{
+			workers[t] = new Worker(games);
+			pool[t] = new Thread(workers[t], "simulation-" + t);
+			pool[t].start();
+		}
+		
+		//Wait all the workers and merge the results
+		Result result = new Result();
+		for(int t = 0; t < workers.length; t++)
+		{
+			try
+			{
+				pool[t].join();
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Simulation interrupted [Simulator]");
+			}
+			
+			result.merge(workers[t].result);
+		}
+		
+		result.nanos = System.nanoTime() - start;
+		return result;
+	}
+	
+	/**
+	 * Mixing function of the seeds (the SplittableRandom finalizer)
+	 * @param z The value to mix
+	 * @return The mixed value
+	 */
+	private static long mix(long z)
+	{
+		z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+		z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return z ^ (z >>> 33);
+	}
+	
+	/**
+	 * Worker that plays the games with its own engine and strategy
+	 * @author Matteo Pignataro
+	 */
+	private class Worker implements Runnable, ChangeListener
+	{
+		/**
+		 * Total number of games
+		 */
+		private final long games;
+		
+		/**
+		 * The results of this worker
+		 */
+		private final Result result;
+		
+		/**
+		 * Constructor
+		 * @param games The total number of games
+		 */
+		public Worker(long games)
+		{
+			this.games = games;
+			result = new Result();
+		}
+		
+		@Override
+		public void run()
+		{
+			BoardGenerator generator = mines > 0 ? BoardGenerator.withBombs(mines, seed) : BoardGenerator.withDensity(density, seed);
+			BoardEngine engine = new BoardEngine(width, height, generator);
+			Strategy strategy = factory.create(engine);
+			engine.addChangeListener(this);
+			
+			long game;
+			while((game = next.getAndAdd(CHUNK)) < games)
+			{
+				for(long k = game; k < Math.min(game + CHUNK, games); k++)
+				{
+					//Seeds of the board and of the strategy choices
+					generator.setSeed(mix(seed + (2 * k + 1) * GOLDEN_GAMMA));
+					engine.reset();
+					strategy.play(mix(seed + (2 * k + 2) * GOLDEN_GAMMA));
+					
+					result.games++;
+					if(engine.getState() == GameState.GAME_WIN) { result.wins++; }
+					if(engine.isGenerated()) { result.threeBV += BoardMetrics.threeBV(engine.getStore()); }
+				}
+			}
+		}
+		
+		@Override
+		public void changed(ChangeSet changes)
+		{
+			if(changes.isReset()) { return; }
+			
+			//Count the cells that left the hidden state
+			int revealed = 0;
+			for(int k = 0; k < changes.size(); k++)
+			{
+				int state = changes.getState(k);
+				if(state != CellState.CELL_HIDDEN.ordinal() && state != CellState.FLAG.ordinal()) { revealed++; }
+			}
+			
+			if(revealed > 0)
+			{
+				result.reveals++;
+				result.revealedCells += revealed;
+			}
+		}
+	}
+	
+	/**
+	 * Results of a simulation
+	 * @author Matteo Pignataro
+	 */
+	public static class Result
+	{
+		/**
+		 * Counters
+		 */
+		private long games;
+		private long wins;
+		private long threeBV;
+		private long reveals;
+		private long revealedCells;
+		private long nanos;
+		
+		/**
+		 * Method that adds the counters of another result
+		 * @param other The other result
+		 */
+		private void merge(Result other)
+		{
+			games 			+= other.games;
+			wins 			+= other.wins;
+			threeBV 		+= other.threeBV;
+			reveals 		+= other.reveals;
+			revealedCells 	+= other.revealedCells;
+		}
+		
+		//Simple getters
+		public long getGames() 				{ return games; }
+		public long getWins() 				{ return wins; }
+		public double getWinRate() 			{ return games == 0 ? 0 : (double) wins / games; }
+		public double getMeanThreeBV() 		{ return games == 0 ? 0 : (double) threeBV / games; }
+		public double getMeanReveals() 		{ return games == 0 ? 0 : (double) reveals / games; }
+		public double getMeanRevealedCells() { return games == 0 ? 0 : (double) revealedCells / games; }
+		public double getGamesPerSecond() 	{ return nanos == 0 ? 0 : games * 1e9 / nanos; }
+		
+		/**
+		 * Method that computes the 95% confidence half width of the win rate
+		 * @return The half width of the interval
+		 */
+		public double getWinRateError() { return games == 0 ? 0 : 1.96 * Math.sqrt(getWinRate() * (1 - getWinRate()) / games); }
+		
+		@Override
+		public String toString()
+		{
+			return String.format(Locale.ROOT, "games %d  win rate %.4f (+-%.4f)  3BV %.2f  reveals %.2f  revealed cells %.2f  games/s %.1f",
+					games, getWinRate(), getWinRateError(), getMeanThreeBV(), getMeanReveals(), getMeanRevealedCells(), getGamesPerSecond());
+		}
+	}
+	
+	public static void main(String[] args)
+	{
+		if(args.length < 4)
+		{
+			System.out.println("Usage: Simulator width height mines|density% games [rules|random|probability] [seed] [threads]");
+			return;
+		}
+		
+		int width 		= Integer.parseInt(args[0]);
+		int height 		= Integer.parseInt(args[1]);
+		long games 		= Long.parseLong(args[3]);
+		String name 	= args.length > 4 ? args[4] : "probability";
+		long seed 		= args.length > 5 ? Long.parseLong(args[5]) : 42;
+		int threads 	= args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+		
+		//The mines can be given as a number or as a density percentage
+		int mines 		= 0;
+		double density 	= 0;
+		if(args[2].endsWith("%")) 	{ density = Double.parseDouble(args[2].substring(0, args[2].length() - 1)) / 100; }
+		else 						{ mines = Integer.parseInt(args[2]); }
+		
+		SolverStrategy.GuessMode mode;
+		switch(name)
+		{
+			case "rules": 		mode = SolverStrategy.GuessMode.NONE; break;
+			case "random": 		mode = SolverStrategy.GuessMode.RANDOM; break;
+			case "probability": mode = SolverStrategy.GuessMode.PROBABILITY; break;
+			default: throw new RuntimeException("Unknown strategy " + name + " [Simulator]");
+		}
+		
+		Simulator simulator = new Simulator(width, height, mines, density, SolverStrategy.factory(mode), seed);
+		System.out.println(width + "x" + height + " " + args[2] + " " + name + " on " + threads + " threads");
+		System.out.println(simulator.run(games, threads));
+	}
+}
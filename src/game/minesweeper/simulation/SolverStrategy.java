@@ -0,0 +1,125 @@
+package game.minesweeper.simulation;
+
+import java.util.SplittableRandom;
+
+import game.minesweeper.game.board.BoardEngine;
+import game.minesweeper.game.board.BoardStore;
+import game.minesweeper.game.objects.CellState;
+import game.minesweeper.game.solver.ProbabilityEngine;
+import game.minesweeper.game.solver.RuleSolver;
+import game.minesweeper.game.solver.SolverPlayer;
+
+/**
+ * Strategy that applies all the guaranteed moves of the rule solver and, when it is stuck,
+ * gives up (NONE), reveals a random hidden cell (RANDOM) or reveals the cell with the lowest
+ * exact mine probability (PROBABILITY).
+ * @author Matteo Pignataro
+ */
+public class SolverStrategy implements Strategy
+{
+	/**
+	 * Enumerates the behaviours when no guaranteed move exists
+	 * @author Matteo Pignataro
+	 */
+	public static enum GuessMode
+	{
+		NONE, RANDOM, PROBABILITY;
+	}
+	
+	/**
+	 * Time budget of a probabilities computation (nanoseconds)
+	 */
+	private static final long PROBABILITY_BUDGET = 50_000_000;
+	
+	/**
+	 * The game engine
+	 */
+	private final BoardEngine engine;
+	
+	/**
+	 * Player of the guaranteed moves (and of the probability guesses)
+	 */
+	private final SolverPlayer player;
+	
+	/**
+	 * Guess behaviour
+	 */
+	private final GuessMode mode;
+	
+	/**
+	 * Random source of the random guesses
+	 */
+	private SplittableRandom random;
+	
+	/**
+	 * Constructor
+	 * @param engine The game engine
+	 * @param mode The behaviour when no guaranteed move exists
+	 */
+	public SolverStrategy(BoardEngine engine, GuessMode mode)
+	{
+		this.engine = engine;
+		this.mode 	= mode == null ? GuessMode.NONE : mode;
+		random 		= new SplittableRandom();
+		player 		= new SolverPlayer(engine, new RuleSolver(engine), this.mode == GuessMode.PROBABILITY ? new ProbabilityEngine(engine, PROBABILITY_BUDGET) : null);
+	}
+	
+	/**
+	 * @param mode The behaviour when no guaranteed move exists
+	 * @return A factory of this strategy
+	 */
+	public static Strategy.Factory factory(GuessMode mode) { return (BoardEngine engine) -> new SolverStrategy(engine, mode); }
+	
+	@Override
+	public void play(long seed)
+	{
+		random = new SplittableRandom(seed);
+		
+		while(engine.isPlaying())
+		{
+			//All the guaranteed moves
+			player.play(Long.MAX_VALUE >>> 2);
+			
+			if(!engine.isPlaying()) { return; }
+			
+			//No guaranteed move left
+			switch(mode)
+			{
+				case PROBABILITY:
+					if(!player.guess()) { return; }
+					break;
+				
+				case RANDOM:
+					if(!guessRandom()) { return; }
+					break;
+				
+				default:
+					return;
+			}
+		}
+	}
+	
+	/**
+	 * Method that reveals a random hidden cell
+	 * @return If a cell has been revealed
+	 */
+	private boolean guessRandom()
+	{
+		BoardStore store = engine.getStore();
+		int start = random.nextInt(store.getSize());
+		
+		//The first hidden cell from a random position
+		for(int k = 0; k < store.getSize(); k++)
+		{
+			int index = (start + k) % store.getSize();
+			
+			if(store.getState(index) == CellState.CELL_HIDDEN)
+			{
+				engine.reveal(index);
+				return true;
+			}
+		}
+		
+		return false;
+	}
+}
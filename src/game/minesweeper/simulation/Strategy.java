@@ -0,0 +1,30 @@
+package game.minesweeper.simulation;
+
+import game.minesweeper.game.board.BoardEngine;
+
+/**
+ * Interface of a playing strategy used by the simulations
+ * @author Matteo Pignataro
+ */
+public interface Strategy
+{
+	/**
+	 * Builder of the strategies: every simulation worker has its own engine and strategy
+	 * @author Matteo Pignataro
+	 */
+	public interface Factory
+	{
+		/**
+		 * @param engine The engine of the worker
+		 * @return A new strategy that plays on the engine
+		 */
+		public Strategy create(BoardEngine engine);
+	}
+	
+	/**
+	 * Method that plays the current game of the engine (already reset) until it is over
+	 * or the strategy gives up
+	 * @param seed The seed of the random choices of this game
+	 */
+	public void play(long seed);
+}
@@ -10,22 +10,29 @@ import static org.lwjgl.glfw.GLFW.glfwDefaultWindowHints;
 import static org.lwjgl.glfw.GLFW.glfwDestroyWindow;
 import static org.lwjgl.glfw.GLFW.glfwHideWindow;
 import static org.lwjgl.glfw.GLFW.glfwMakeContextCurrent;
-import static org.lwjgl.glfw.GLFW.glfwPollEvents;
 import static org.lwjgl.glfw.GLFW.glfwSetCursorPosCallback;
+import static org.lwjgl.glfw.GLFW.glfwSetKeyCallback;
 import static org.lwjgl.glfw.GLFW.glfwSetMouseButtonCallback;
 import static org.lwjgl.glfw.GLFW.glfwSetWindowCloseCallback;
+import static org.lwjgl.glfw.GLFW.glfwSetWindowRefreshCallback;
 import static org.lwjgl.glfw.GLFW.glfwSetWindowSizeCallback;
+import static org.lwjgl.glfw.GLFW.glfwSetWindowTitle;
 import static org.lwjgl.glfw.GLFW.glfwShowWindow;
 import static org.lwjgl.glfw.GLFW.glfwSwapBuffers;
 import static org.lwjgl.glfw.GLFW.glfwSwapInterval;
+import static org.lwjgl.glfw.GLFW.glfwWaitEvents;
+import static org.lwjgl.glfw.GLFW.glfwWaitEventsTimeout;
 import static org.lwjgl.glfw.GLFW.glfwWindowHint;
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.glClear;
 import static org.lwjgl.opengl.GL11.glViewport;
 import static org.lwjgl.system.MemoryUtil.NULL;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import game.minesweeper.render.VAO;
+import game.minesweeper.render.Renderable;
+import game.minesweeper.window.listener.KeyListener;
 import game.minesweeper.window.listener.MouseEvent;
 import game.minesweeper.window.listener.MouseListener;
 
@@ -65,15 +72,25 @@ public class Window
 	 */
 	private boolean open;
 	
+	/**
+	 * Boolean that represents a window content lost (e.g. after an expose event)
+	 */
+	private boolean damaged;
+	
 	/**
 	 * Mouse Listener
 	 */
 	private MouseListener mouseListener;
 	
+	/**
+	 * Key Listener
+	 */
+	private KeyListener keyListener;
+	
 	/**
 	 * VAOs list
 	 */
-	private List<VAO> vaoList;
+	private List<Renderable> vaoList;
 	
 	/**
 	 * Private Constructor
@@ -89,12 +106,17 @@ public class Window
 		this.ID = -1;
 		//Set the window to open
 		open = true;
+		//Nothing has been drawn yet
+		damaged = true;
 		
 		//Initialize the mouse listener
 		mouseListener = new MouseListener();
 		
+		//Initialize the key listener
+		keyListener = new KeyListener();
+		
 		//Initialize the VAO list
-		vaoList = new ArrayList<VAO>();
+		vaoList = new ArrayList<Renderable>();
 		
 		//Initialize the window
 		initWindow();
@@ -130,10 +152,13 @@ public class Window
 			//Set the callbacks to the listeners
 			glfwSetMouseButtonCallback(ID, mouseListener);
 			glfwSetCursorPosCallback(ID, mouseListener.getMousePositionListener());
+			glfwSetKeyCallback(ID, keyListener);
 			//Set the callback to call the clean function
 			glfwSetWindowCloseCallback(ID, (long window) -> clean());
 			//Set this object as window size change listener
 			glfwSetWindowSizeCallback(ID, (long window, int w, int h) -> updateSize(w, h));
+			//Set the callback to redraw the content when the system asks for it
+			glfwSetWindowRefreshCallback(ID, (long window) -> damaged = true);
 		}
 	}
 	
@@ -148,15 +173,26 @@ public class Window
 	public void hideWindow() { glfwHideWindow(ID); }
 	
 	/**
-	 * Refresh the screen and poll all the events
+	 * Changes the title shown by the window (the window name stays the same)
+	 * @param title The new title
+	 */
+	public void setTitle(String title) { glfwSetWindowTitle(ID, title == null ? name : title); }
+	
+	/**
+	 * Waits until there are events to handle or the timeout expires.
+	 * @param timeout The maximum time to wait in seconds. With a negative value it waits without limits
 	 */
-	public void update()
+	public void waitEvents(double timeout)
 	{
-		//Swap OpenGL buffers
-		glfwSwapBuffers(ID);
-		
 		//Call all the events managers
-		glfwPollEvents();
+		if(timeout < 0)
+		{
+			glfwWaitEvents();
+		}
+		else
+		{
+			glfwWaitEventsTimeout(timeout);
+		}
 	}
 	
 	/**
@@ -171,10 +207,13 @@ public class Window
 		this.height = height;
 		
 		//Update all the VAOs objects
-		vaoList.stream().forEach((VAO v) -> v.updateWindowSize(width, height));
+		vaoList.stream().forEach((Renderable v) -> v.updateWindowSize(width, height));
 		
 		//Reset openGL references
 		glViewport(0, 0, width, height);
+		
+		//The whole content needs to be drawn again
+		damaged = true;
 	}
 	
 	/**
@@ -183,7 +222,7 @@ public class Window
 	public void clean()
 	{
 		//Clean all the VAOs
-		vaoList.stream().forEach((VAO v) -> v.clean());
+		vaoList.stream().forEach((Renderable v) -> v.clean());
 		
 		//Release callbacks
 		glfwFreeCallbacks(ID);
@@ -199,7 +238,7 @@ public class Window
 	 * Add the vao to the VAOs list
 	 * @param v The VAO that needs to be added
 	 */
-	public void addVAO(VAO v)
+	public void addVAO(Renderable v)
 	{
 		//I add it if its not already present
 		if(!vaoList.contains(v))
@@ -212,18 +251,56 @@ public class Window
 	}
 	
 	/**
-	 * Method to draw all the VAOs
+	 * Method to draw all the VAOs and refresh the screen.
+	 * If nothing changed the draw and the buffers swap are skipped.
+	 * @return If the screen has been refreshed
 	 */
-	public void drawVAO()
+	public boolean drawVAO()
 	{
+		//Check if at least one VAO changed
+		boolean updated = damaged;
+		for(int i = 0; i < vaoList.size() && !updated; i++)
+		{
+			updated = vaoList.get(i).isUpdated();
+		}
+		
+		//Nothing to do
+		if(!updated) { return false; }
+		
+		//Reset the scene to default color
+		glClear(GL_COLOR_BUFFER_BIT);
+		
 		//For each VAO i call the draw method
-		vaoList.stream().forEach((VAO v) -> v.draw());
+		for(int i = 0; i < vaoList.size(); i++)
+		{
+			vaoList.get(i).draw();
+		}
+		
+		//Swap OpenGL buffers
+		glfwSwapBuffers(ID);
+		
+		//The content is now up to date
+		damaged = false;
+		
+		return true;
 	}
 	
+	/**
+	 * Method that fills the passed event with the oldest pending mouse event
+	 * @param event The event to fill
+	 * @return If there was a pending event
+	 */
+	public boolean pollMouseEvent(MouseEvent event) { return mouseListener.pollEvent(event); }
+	
+	/**
+	 * Method that returns the oldest pressed key
+	 * @return The GLFW key code or -1 if there are no pending keys
+	 */
+	public int pollKey() { return keyListener.pollKey(); }
+	
 	/**
 	 * Window getters
 	 */
-	public MouseEvent getLastMouseEvent() 	{ return mouseListener.getLastMouseEvent(); }
 	public long getID()						{ return ID; }
 	public int getWidth() 				  	{ return width; }
 	public int getHeight() 				 	{ return height; }
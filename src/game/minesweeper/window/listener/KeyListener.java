@@ -0,0 +1,72 @@
+package game.minesweeper.window.listener;
+
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+
+import org.lwjgl.glfw.GLFWKeyCallback;
+
+/**
+ * This class describes the key callback of the window.
+ * The pressed keys are stored in a ring buffer of primitive key codes,
+ * so no key is lost between two game loops and no object is allocated.
+ * @author Matteo Pignataro
+ */
+public class KeyListener extends GLFWKeyCallback
+{
+	/**
+	 * Ring buffer capacity (power of 2), when it is full the new keys are dropped
+	 */
+	private static final int CAPACITY = 64;
+	
+	/**
+	 * Pressed key codes
+	 */
+	private final int keys[];
+	
+	/**
+	 * Index of the oldest key
+	 */
+	private int head;
+	
+	/**
+	 * Number of pending keys
+	 */
+	private int count;
+	
+	/**
+	 * Constructor
+	 */
+	public KeyListener()
+	{
+		keys 	= new int[CAPACITY];
+		head 	= 0;
+		count 	= 0;
+	}
+	
+	@Override
+	public void invoke(long window, int key, int scancode, int action, int mods)
+	{
+		//I register only the presses
+		if(action != GLFW_PRESS || count == CAPACITY) { return; }
+		
+		keys[(head + count) & (CAPACITY - 1)] = key;
+		count++;
+	}
+	
+	/**
+	 * Method that removes the oldest pressed key
+	 * @return The GLFW key code or -1 if there are no pending keys
+	 */
+	public int pollKey()
+	{
+		//Nothing to return
+		if(count == 0) { return -1; }
+		
+		int key = keys[head];
+		
+		//Remove the key
+		head = (head + 1) & (CAPACITY - 1);
+		count--;
+		
+		return key;
+	}
+}
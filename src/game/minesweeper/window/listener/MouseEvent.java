@@ -1,7 +1,9 @@
 package game.minesweeper.window.listener;
 
 /**
- * Mouse events not mutable class with coordinates and click type informations
+ * Mouse events class with coordinates, click type and timestamp informations.
+ * The instances can be refilled only by the mouse listener, so the game loop
+ * can reuse the same event without allocations.
  * @author Matteo Pignataro
  */
 public class MouseEvent 
@@ -26,19 +28,33 @@ public class MouseEvent
 	 */
 	private MouseEventType type;
 	
+	/**
+	 * Event timestamp in nanoseconds
+	 */
+	private long timestamp;
+	
 	/**
 	 * Constructor
 	 * @param X the mouse X position when the event was created
 	 * @param Y the mouse Y position when the event was created
 	 * @param type the event type
 	 */
-	public MouseEvent(double X, double Y, MouseEventType type) { this.X = X; this.Y = Y; this.type = type; }
+	public MouseEvent(double X, double Y, MouseEventType type) { this.X = X; this.Y = Y; this.type = type; this.timestamp = System.nanoTime(); }
 	
 	/**
 	 * Void constructor
 	 */
 	public MouseEvent() { this(0, 0, MouseEventType.RIGHT_CLICK); }
 	
+	/**
+	 * Method used by the mouse listener to refill the event
+	 * @param X the mouse X position
+	 * @param Y the mouse Y position
+	 * @param type the event type
+	 * @param timestamp the event timestamp in nanoseconds
+	 */
+	void set(double X, double Y, MouseEventType type, long timestamp) { this.X = X; this.Y = Y; this.type = type; this.timestamp = timestamp; }
+	
 	/**
 	 * @return X mouse coordinate
 	 */
@@ -53,4 +69,9 @@ public class MouseEvent
 	 * @return Click event type
 	 */
 	public MouseEventType getEventType() { return type; }
+	
+	/**
+	 * @return Event timestamp in nanoseconds
+	 */
+	public long getTimestamp() { return timestamp; }
 }
\ No newline at end of file
@@ -10,14 +10,52 @@ import game.minesweeper.window.listener.MouseEvent.MouseEventType;
 /**
  * This class describes the mouse listener for the window and the 
  * mouse button callback.
+ * The events are stored in a ring buffer of primitive arrays, so no event
+ * is lost between two game loops and no object is allocated. When the
+ * buffer is full it doubles its capacity.
  * @author Matteo Pignataro
  */
 public class MouseListener extends GLFWMouseButtonCallback
 {
 	/**
-	 * Last event registered
+	 * Initial ring buffer capacity (power of 2)
 	 */
-	private MouseEvent lastMouseEvent;
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/**
+	 * Cached event types to avoid the values() clone
+	 */
+	private static final MouseEventType TYPES[] = MouseEventType.values();
+	
+	/**
+	 * Events X coordinates
+	 */
+	private double posX[];
+	
+	/**
+	 * Events Y coordinates
+	 */
+	private double posY[];
+	
+	/**
+	 * Events type ordinals
+	 */
+	private byte types[];
+	
+	/**
+	 * Events timestamps in nanoseconds
+	 */
+	private long timestamps[];
+	
+	/**
+	 * Index of the oldest event
+	 */
+	private int head;
+	
+	/**
+	 * Number of pending events
+	 */
+	private int count;
 	
 	/**
 	 * Mouse Position Listener
@@ -29,8 +67,16 @@ public class MouseListener extends GLFWMouseButtonCallback
 	 */
 	public MouseListener()
 	{
+		//Instance the ring buffer
+		posX 		= new double[INITIAL_CAPACITY];
+		posY 		= new double[INITIAL_CAPACITY];
+		types 		= new byte[INITIAL_CAPACITY];
+		timestamps 	= new long[INITIAL_CAPACITY];
+		head 		= 0;
+		count 		= 0;
+		
 		//Initialize the position listener
-		positionListener = new MousePositionListener();
+		positionListener = new MousePositionListener(this);
 	}
 	
 	@Override
@@ -39,43 +85,111 @@ public class MouseListener extends GLFWMouseButtonCallback
 		//Check if the user pressed the button
 		if(action == GLFW_PRESS)
 		{
-			//Create the new event
-			lastMouseEvent = new MouseEvent(positionListener.getPosX(),
-											positionListener.getPosY(),
-											MouseEventType.values()[button < 3 ? button : 3]);
+			//Register the new event
+			push(positionListener.getPosX(), positionListener.getPosY(), button < 3 ? button : 3);
 		}
 		else if(action == GLFW_RELEASE)
 		{
 			//In case of a release i select the correspondent release
-			lastMouseEvent = new MouseEvent(positionListener.getPosX(),
-											positionListener.getPosY(),
-											MouseEventType.values()[button < 3? button + 4 : 7]);
+			push(positionListener.getPosX(), positionListener.getPosY(), button < 3 ? button + 4 : 7);
 		}
 	}
 	
 	/**
-	 * @return Last mouse event. Null value in case of no recent event.
+	 * Method called by the position listener when the cursor moves.
+	 * Consecutive movements are merged in the last one.
+	 * @param x The new X position
+	 * @param y The new Y position
 	 */
-	public MouseEvent getLastMouseEvent() 
+	void move(double x, double y)
 	{
-		//Check if there is something to return. In case there isn't i return the simple mouse position movement
-		if(lastMouseEvent == null) 
+		//If the last pending event is a movement i just update it
+		if(count > 0)
 		{
-			return new MouseEvent(positionListener.getPosX(),
-								  positionListener.getPosY(),
-								  MouseEventType.MOVE); 
+			int last = (head + count - 1) & (types.length - 1);
+			
+			if(types[last] == MouseEventType.MOVE.ordinal())
+			{
+				posX[last] 			= x;
+				posY[last] 			= y;
+				timestamps[last] 	= System.nanoTime();
+				return;
+			}
 		}
 		
-		//Create a temporary variable where i store the details
-		MouseEvent temp = new MouseEvent(lastMouseEvent.getPosX(),
-				 						 lastMouseEvent.getPosY(),
-				 						 lastMouseEvent.getEventType());
-										 
-		//Destroy the mouse event
-		this.lastMouseEvent = null;
-		 
-		//Return the temporary variable
-		return temp; 
+		push(x, y, MouseEventType.MOVE.ordinal());
+	}
+	
+	/**
+	 * Method that appends an event to the ring buffer
+	 * @param x The X position
+	 * @param y The Y position
+	 * @param type The event type ordinal
+	 */
+	private void push(double x, double y, int type)
+	{
+		//If the buffer is full i double it
+		if(count == types.length)
+		{
+			grow();
+		}
+		
+		int tail = (head + count) & (types.length - 1);
+		
+		posX[tail] 			= x;
+		posY[tail] 			= y;
+		types[tail] 		= (byte) type;
+		timestamps[tail] 	= System.nanoTime();
+		count++;
+	}
+	
+	/**
+	 * Method that doubles the ring buffer capacity keeping the events order
+	 */
+	private void grow()
+	{
+		int capacity = types.length * 2;
+		
+		double newPosX[] 		= new double[capacity];
+		double newPosY[] 		= new double[capacity];
+		byte newTypes[] 		= new byte[capacity];
+		long newTimestamps[] 	= new long[capacity];
+		
+		//Copy the events from the oldest one
+		for(int k = 0; k < count; k++)
+		{
+			int index = (head + k) & (types.length - 1);
+			
+			newPosX[k] 			= posX[index];
+			newPosY[k] 			= posY[index];
+			newTypes[k] 		= types[index];
+			newTimestamps[k] 	= timestamps[index];
+		}
+		
+		posX 		= newPosX;
+		posY 		= newPosY;
+		types 		= newTypes;
+		timestamps 	= newTimestamps;
+		head 		= 0;
+	}
+	
+	/**
+	 * Method that removes the oldest pending event and copies it in the passed one
+	 * @param event The event to fill
+	 * @return If there was a pending event
+	 */
+	public boolean pollEvent(MouseEvent event)
+	{
+		//Nothing to return
+		if(count == 0) { return false; }
+		
+		event.set(posX[head], posY[head], TYPES[types[head]], timestamps[head]);
+		
+		//Remove the event
+		head = (head + 1) & (types.length - 1);
+		count--;
+		
+		return true;
 	}
 	
 	/**
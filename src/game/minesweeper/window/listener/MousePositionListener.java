@@ -14,12 +14,29 @@ public class MousePositionListener extends GLFWCursorPosCallback
 	private double posX;
 	private double posY;
 	
+	/**
+	 * The mouse listener that receives the movement events
+	 */
+	private final MouseListener mouseListener;
+	
+	/**
+	 * Constructor
+	 * @param mouseListener The mouse listener that receives the movement events
+	 */
+	public MousePositionListener(MouseListener mouseListener)
+	{
+		this.mouseListener = mouseListener;
+	}
+	
 	@Override
 	public void invoke(long window, double xpos, double ypos) 
 	{
 		//Set the new position
 		this.posX = xpos;
 		this.posY = ypos;
+		
+		//Register the movement
+		mouseListener.move(xpos, ypos);
 	}
 	
 	/**